@@ -4,7 +4,9 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.validation.annotation.Validated;
 
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Configuration properties for A2A Spring Boot starter.
@@ -33,6 +35,11 @@ public class A2AProperties {
      */
     private TimeoutProperties timeouts = new TimeoutProperties();
 
+    /**
+     * Per-client JSON-RPC rate limiting.
+     */
+    private RateLimitProperties rateLimit = new RateLimitProperties();
+
     public boolean isEnabled() {
         return enabled;
     }
@@ -65,6 +72,14 @@ public class A2AProperties {
         this.timeouts = timeouts;
     }
 
+    public RateLimitProperties getRateLimit() {
+        return rateLimit;
+    }
+
+    public void setRateLimit(RateLimitProperties rateLimit) {
+        this.rateLimit = rateLimit;
+    }
+
     /**
      * Agent configuration properties.
      */
@@ -90,6 +105,11 @@ public class A2AProperties {
          */
         private String url = "http://localhost:8080";
 
+        /**
+         * Cache-Control max-age in seconds for the served agent card.
+         */
+        private long cardMaxAgeSeconds = 300;
+
         /**
          * Agent capabilities.
          */
@@ -137,6 +157,14 @@ public class A2AProperties {
             this.url = url;
         }
 
+        public long getCardMaxAgeSeconds() {
+            return cardMaxAgeSeconds;
+        }
+
+        public void setCardMaxAgeSeconds(long cardMaxAgeSeconds) {
+            this.cardMaxAgeSeconds = cardMaxAgeSeconds;
+        }
+
         public CapabilitiesProperties getCapabilities() {
             return capabilities;
         }
@@ -283,4 +311,104 @@ public class A2AProperties {
             this.blockingConsumption = blockingConsumption;
         }
     }
+
+    /**
+     * Per-client JSON-RPC rate limiting configuration.
+     * Method names contain a slash, so per-method entries use bracket keys,
+     * e.g. {@code a2a.rate-limit.methods[message/send].permits-per-second}.
+     */
+    public static class RateLimitProperties {
+
+        /**
+         * Whether JSON-RPC calls are rate limited.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Rate for methods without a per-method entry.
+         */
+        private RateProperties defaults = new RateProperties(50, 100);
+
+        /**
+         * Per-method rates, keyed by JSON-RPC method name.
+         */
+        private Map<String, RateProperties> methods = new LinkedHashMap<>();
+
+        /**
+         * Milliseconds after which an untouched client bucket is dropped.
+         */
+        private long idleTtlMs = 300_000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public RateProperties getDefaults() {
+            return defaults;
+        }
+
+        public void setDefaults(RateProperties defaults) {
+            this.defaults = defaults;
+        }
+
+        public Map<String, RateProperties> getMethods() {
+            return methods;
+        }
+
+        public void setMethods(Map<String, RateProperties> methods) {
+            this.methods = methods;
+        }
+
+        public long getIdleTtlMs() {
+            return idleTtlMs;
+        }
+
+        public void setIdleTtlMs(long idleTtlMs) {
+            this.idleTtlMs = idleTtlMs;
+        }
+    }
+
+    /**
+     * A sustained rate and burst size.
+     */
+    public static class RateProperties {
+
+        /**
+         * Sustained calls per second.
+         */
+        private double permitsPerSecond;
+
+        /**
+         * Calls that may arrive back to back.
+         */
+        private int burst;
+
+        public RateProperties() {
+        }
+
+        public RateProperties(double permitsPerSecond, int burst) {
+            this.permitsPerSecond = permitsPerSecond;
+            this.burst = burst;
+        }
+
+        public double getPermitsPerSecond() {
+            return permitsPerSecond;
+        }
+
+        public void setPermitsPerSecond(double permitsPerSecond) {
+            this.permitsPerSecond = permitsPerSecond;
+        }
+
+        public int getBurst() {
+            return burst;
+        }
+
+        public void setBurst(int burst) {
+            this.burst = burst;
+        }
+    }
 }
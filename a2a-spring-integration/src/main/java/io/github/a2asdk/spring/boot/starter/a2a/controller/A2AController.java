@@ -3,10 +3,10 @@ package io.github.a2asdk.spring.boot.starter.a2a.controller;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 import io.a2a.server.ServerCallContext;
 import io.a2a.server.auth.UnauthenticatedUser;
 import io.a2a.server.auth.User;
-import io.a2a.spec.AgentCard;
 import io.a2a.spec.CancelTaskRequest;
 import io.a2a.spec.DeleteTaskPushNotificationConfigRequest;
 import io.a2a.spec.GetAuthenticatedExtendedCardRequest;
@@ -16,6 +16,7 @@ import io.a2a.spec.IdJsonMappingException;
 import io.a2a.spec.InvalidParamsError;
 import io.a2a.spec.InvalidParamsJsonMappingException;
 import io.a2a.spec.InvalidRequestError;
+import io.a2a.spec.JSONRPCError;
 import io.a2a.spec.JSONRPCErrorResponse;
 import io.a2a.spec.JSONRPCRequest;
 import io.a2a.spec.JSONRPCResponse;
@@ -28,22 +29,29 @@ import io.a2a.spec.SendStreamingMessageRequest;
 import io.a2a.spec.SetTaskPushNotificationConfigRequest;
 import io.a2a.spec.TaskResubscriptionRequest;
 import io.a2a.transport.jsonrpc.handler.JSONRPCHandler;
+import io.github.a2asdk.spring.boot.starter.a2a.A2AProperties;
 
 import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Executor;
@@ -54,76 +62,180 @@ import java.util.concurrent.atomic.AtomicBoolean;
  * REST controller for A2A protocol endpoints.
  * 
  * This controller handles:
- * - JSON-RPC requests at POST /
+ * - JSON-RPC requests at POST /, as JSON or CBOR, rate limited per client and method
  * - Server-Sent Events for streaming
- * - Agent card retrieval at GET /.well-known/agent-card.json
+ * - Agent card retrieval at GET /.well-known/agent-card.json, pre-serialized with ETag and gzip
  */
 @RestController
 public class A2AController {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(A2AController.class);
 
+    /** The methods this controller dispatches; any other name is rate limited as one. */
+    private static final Set<String> METHODS = Set.of(
+            GetTaskRequest.METHOD, CancelTaskRequest.METHOD, SetTaskPushNotificationConfigRequest.METHOD,
+            GetTaskPushNotificationConfigRequest.METHOD, SendMessageRequest.METHOD,
+            ListTaskPushNotificationConfigRequest.METHOD, DeleteTaskPushNotificationConfigRequest.METHOD,
+            GetAuthenticatedExtendedCardRequest.METHOD, SendStreamingMessageRequest.METHOD,
+            TaskResubscriptionRequest.METHOD);
+
     private final JSONRPCHandler jsonRpcHandler;
     private final ObjectMapper objectMapper;
+    private final ObjectMapper cborMapper;
     private final Executor a2aExecutor;
+    private final CachedAgentCard cachedAgentCard;
+    private final JsonRpcRateLimiter rateLimiter;
 
     public A2AController(JSONRPCHandler jsonRpcHandler, 
                          ObjectMapper objectMapper,
-                         Executor a2aExecutor) {
+                         Executor a2aExecutor,
+                         A2AProperties properties) {
         this.jsonRpcHandler = jsonRpcHandler;
         this.objectMapper = objectMapper;
+        this.cborMapper = objectMapper.copyWith(new CBORFactory());
         this.a2aExecutor = a2aExecutor;
+        this.cachedAgentCard = new CachedAgentCard(jsonRpcHandler::getAgentCard, objectMapper,
+                CacheControl.maxAge(Duration.ofSeconds(properties.getAgent().getCardMaxAgeSeconds())).cachePublic());
+        this.rateLimiter = properties.getRateLimit().isEnabled() ? createRateLimiter(properties.getRateLimit()) : null;
     }
 
     /**
      * Handle JSON-RPC requests.
-     * Supports both blocking and streaming methods.
+     * Supports both blocking and streaming methods. Blocking responses are written
+     * in the one of JSON and CBOR the {@code Accept} header prefers, and in the
+     * request's format when it prefers neither, e.g. when it is missing or malformed.
+     * Clients over their rate limit get an error carrying {@code retryAfterMs}.
      */
-    @PostMapping(value = "/", consumes = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<?> handleRequest(@RequestBody String body, HttpServletRequest request) {
-        LOGGER.debug("Received request: {}", body);
+    @PostMapping(value = "/", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<?> handleRequest(@RequestBody byte[] body, HttpServletRequest request) {
+        boolean cbor = isCbor(request.getContentType());
+        MediaType responseType = responseType(cbor, request.getHeader(HttpHeaders.ACCEPT));
+        LOGGER.debug("Received {} request of {} bytes", cbor ? "CBOR" : "JSON", body.length);
         
         boolean streaming = false;
+        JSONRPCResponse<?> response;
         
         try {
-            JsonNode node = objectMapper.readTree(body);
+            JsonNode node = (cbor ? cborMapper : objectMapper).readTree(body);
             JsonNode methodNode = node.get("method");
             String method = methodNode != null ? methodNode.asText() : null;
             
             streaming = isStreamingMethod(method);
             ServerCallContext context = createCallContext(request);
-            
-            if (streaming) {
+
+            long retryAfterMs = throttle(request, method);
+            if (retryAfterMs > 0) {
+                LOGGER.warn("Rate limit exceeded: method={}, retryAfterMs={}", method, retryAfterMs);
+                response = rateLimitedError(node.get("id"), retryAfterMs);
+            } else if (streaming) {
                 return handleStreamingRequest(node, context);
             } else {
-                JSONRPCResponse<?> nonStreamingResponse = handleNonStreamingRequest(node, context);
-                return ResponseEntity.ok()
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .body(nonStreamingResponse);
+                response = handleNonStreamingRequest(node, context);
             }
             
         } catch (JsonProcessingException e) {
             LOGGER.error("Error parsing JSON request", e);
-            JSONRPCErrorResponse error = handleJsonError(e);
-            return ResponseEntity.ok()
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .body(error);
+            response = handleJsonError(e);
         } catch (Exception e) {
             LOGGER.error("Error handling request", e);
-            JSONRPCErrorResponse error = new JSONRPCErrorResponse(
+            response = new JSONRPCErrorResponse(
                     new io.a2a.spec.InternalError(e.getMessage()));
+        }
+        return respond(responseType, response);
+    }
+
+    /**
+     * Write a blocking response with this controller's mappers rather than Spring's
+     * message converters, whose CBOR mapper is a separate instance: the modules and
+     * mixins of the application's {@link ObjectMapper} then apply to CBOR as to JSON.
+     */
+    private ResponseEntity<byte[]> respond(MediaType type, JSONRPCResponse<?> response) {
+        ObjectMapper mapper = MediaType.APPLICATION_CBOR.equals(type) ? cborMapper : objectMapper;
+        try {
             return ResponseEntity.ok()
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .body(error);
+                    .contentType(type)
+                    .body(mapper.writeValueAsBytes(response));
+        } catch (JsonProcessingException e) {
+            LOGGER.error("Error writing response", e);
+            return ResponseEntity.internalServerError().build();
         }
     }
 
     /**
      * Get the agent card.
+     * Answers {@code If-None-Match} with 304 and serves the gzip variant when accepted.
      */
     @GetMapping("/.well-known/agent-card.json")
-    public ResponseEntity<AgentCard> getAgentCard() {
-        return ResponseEntity.ok(jsonRpcHandler.getAgentCard());
+    public ResponseEntity<byte[]> getAgentCard(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return cachedAgentCard.respond(ifNoneMatch, acceptEncoding);
+    }
+
+    private static boolean isCbor(String contentType) {
+        return contentType != null
+                && MediaType.APPLICATION_CBOR.equalsTypeAndSubtype(MediaType.parseMediaType(contentType));
+    }
+
+    /**
+     * CBOR or JSON, whichever {@code accept} gives the higher quality; the format of the
+     * request when it names neither, names both alike or cannot be parsed. The same rule
+     * as the JSON-RPC controller of the example application.
+     */
+    private static MediaType responseType(boolean cborRequest, String accept) {
+        MediaType requested = cborRequest ? MediaType.APPLICATION_CBOR : MediaType.APPLICATION_JSON;
+        if (accept == null) {
+            return requested;
+        }
+        double json = 0;
+        double cbor = 0;
+        try {
+            for (MediaType type : MediaType.parseMediaTypes(accept)) {
+                if (MediaType.APPLICATION_JSON.equalsTypeAndSubtype(type)) {
+                    json = Math.max(json, type.getQualityValue());
+                } else if (MediaType.APPLICATION_CBOR.equalsTypeAndSubtype(type)) {
+                    cbor = Math.max(cbor, type.getQualityValue());
+                }
+            }
+        } catch (InvalidMediaTypeException e) {
+            return requested;
+        }
+        return cbor > json ? MediaType.APPLICATION_CBOR : json > cbor ? MediaType.APPLICATION_JSON : requested;
+    }
+
+    private static JsonRpcRateLimiter createRateLimiter(A2AProperties.RateLimitProperties rateLimit) {
+        Map<String, JsonRpcRateLimiter.Rate> methodRates = new HashMap<>();
+        rateLimit.getMethods().forEach((method, rate) -> methodRates.put(method, toRate(rate)));
+        return new JsonRpcRateLimiter(toRate(rateLimit.getDefaults()), methodRates, METHODS::contains,
+                rateLimit.getIdleTtlMs());
+    }
+
+    private static JsonRpcRateLimiter.Rate toRate(A2AProperties.RateProperties rate) {
+        return new JsonRpcRateLimiter.Rate(rate.getPermitsPerSecond(), rate.getBurst());
+    }
+
+    /**
+     * Charge the call to the caller's bucket: the authenticated user when there is
+     * one, else the remote address.
+     *
+     * @return milliseconds until the call would be admitted, {@code 0} if it is admitted now
+     */
+    private long throttle(HttpServletRequest request, String method) {
+        if (rateLimiter == null) {
+            return 0;
+        }
+        String username = request.getRemoteUser();
+        String client = username != null ? "user:" + username : "addr:" + request.getRemoteAddr();
+        return rateLimiter.tryAcquire(client, method);
+    }
+
+    private static JSONRPCErrorResponse rateLimitedError(JsonNode idNode, long retryAfterMs) {
+        Object id = idNode == null || idNode.isNull() ? null
+                : idNode.isNumber() ? idNode.numberValue() : idNode.asText();
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("retryAfterMs", retryAfterMs);
+        return new JSONRPCErrorResponse(id, new JSONRPCError(JsonRpcRateLimiter.RATE_LIMITED,
+                "Rate limit exceeded", data));
     }
 
     private boolean isStreamingMethod(String method) {
@@ -0,0 +1,135 @@
+package io.github.a2asdk.spring.boot.starter.a2a.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.a2a.spec.AgentCard;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Agent card pre-serialized to JSON and gzip bytes, with a strong ETag per encoding.
+ * The card is serialized again only when the supplier returns a different instance,
+ * so serving a poll is a reference check and a byte copy.
+ *
+ * <p>The demo application carries a copy as {@code com.example.a2a.controller.CachedAgentCard},
+ * trimmed to a card that never changes. The starter is released on its own and neither
+ * project depends on the other, so a change to the responses of one copy has to be made
+ * to both.
+ */
+final class CachedAgentCard {
+
+    private final Supplier<AgentCard> source;
+    private final ObjectMapper objectMapper;
+    private final CacheControl cacheControl;
+
+    private volatile Representation current;
+
+    CachedAgentCard(Supplier<AgentCard> source, ObjectMapper objectMapper, CacheControl cacheControl) {
+        this.source = source;
+        this.objectMapper = objectMapper;
+        this.cacheControl = cacheControl;
+        this.current = serialize(source.get());
+    }
+
+    /**
+     * @param ifNoneMatch     {@code If-None-Match} request header, may be {@code null}
+     * @param acceptEncoding  {@code Accept-Encoding} request header, may be {@code null}
+     * @return 304 when the client already holds the current card, otherwise the card bytes
+     */
+    ResponseEntity<byte[]> respond(String ifNoneMatch, String acceptEncoding) {
+        Representation representation = representation();
+        boolean gzip = acceptsGzip(acceptEncoding);
+        String etag = gzip ? representation.gzipEtag() : representation.etag();
+
+        if (ifNoneMatch != null && matches(ifNoneMatch, representation)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(cacheControl)
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(representation.gzip());
+        }
+        return builder.body(representation.json());
+    }
+
+    private Representation representation() {
+        Representation representation = current;
+        AgentCard card = source.get();
+        if (representation.card() != card) {
+            representation = serialize(card);
+            current = representation;
+        }
+        return representation;
+    }
+
+    private Representation serialize(AgentCard card) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(card);
+            String hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json), 0, 16);
+            return new Representation(card, json, gzip(json), "\"" + hash + "\"", "\"" + hash + "-gzip\"");
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize agent card", e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static boolean matches(String ifNoneMatch, Representation representation) {
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(representation.etag()) || tag.equals(representation.gzipEtag())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length < 2 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private record Representation(AgentCard card, byte[] json, byte[] gzip, String etag, String gzipEtag) {
+    }
+}
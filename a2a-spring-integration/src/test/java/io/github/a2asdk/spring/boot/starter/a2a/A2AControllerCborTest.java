@@ -0,0 +1,103 @@
+package io.github.a2asdk.spring.boot.starter.a2a;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import io.a2a.spec.JSONRPCErrorResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * CBOR requests and responses of the JSON-RPC endpoint, written with the application's
+ * own {@link ObjectMapper} configuration.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class A2AControllerCborTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void shouldAnswerCborWithTheConfiguredMapper() throws Exception {
+        ObjectMapper cbor = objectMapper.copyWith(new CBORFactory());
+        byte[] request = cbor.writeValueAsBytes(Map.of(
+                "jsonrpc", "2.0",
+                "id", 7,
+                "method", "unknown/method",
+                "params", Map.of()));
+
+        MvcResult result = mockMvc.perform(post("/")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .content(request))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn();
+
+        JsonNode response = cbor.readTree(result.getResponse().getContentAsByteArray());
+        assertThat(response.get("error").get("code")).isNotNull();
+        // The mixin below only reaches the response through the application's mapper
+        assertThat(response.has("jsonrpc")).isFalse();
+    }
+
+    @Test
+    void shouldAnswerJsonWhenACborRequestAcceptsJson() throws Exception {
+        byte[] request = objectMapper.copyWith(new CBORFactory()).writeValueAsBytes(Map.of(
+                "jsonrpc", "2.0",
+                "id", 8,
+                "method", "unknown/method",
+                "params", Map.of()));
+
+        mockMvc.perform(post("/")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .content(request))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.id").value(8));
+    }
+
+    @Test
+    void shouldAnswerJsonWhenTheAcceptHeaderIsMalformed() throws Exception {
+        mockMvc.perform(post("/")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.ACCEPT, "application/")
+                        .content("{\"jsonrpc\": \"2.0\", \"id\": 9, \"method\": \"unknown/method\", \"params\": {}}"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.id").value(9));
+    }
+
+    @TestConfiguration
+    static class MixinConfiguration {
+
+        @Bean
+        Module errorResponseMixin() {
+            return new SimpleModule().setMixInAnnotation(JSONRPCErrorResponse.class, WithoutVersion.class);
+        }
+    }
+
+    @JsonIgnoreProperties("jsonrpc")
+    private abstract static class WithoutVersion {
+    }
+}
@@ -37,6 +37,20 @@ class A2AControllerTest {
                 .andExpect(jsonPath("$.capabilities.streaming").value(true));
     }
 
+    @Test
+    void shouldReturnNotModifiedWhenAgentCardEtagMatches() throws Exception {
+        MvcResult result = mockMvc.perform(get("/.well-known/agent-card.json"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(header().exists("Cache-Control"))
+                .andReturn();
+        String etag = result.getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/.well-known/agent-card.json").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag));
+    }
+
     @Test
     void shouldReturnCompletedTaskWhenSendMessageRequested() throws Exception {
         String requestBody = """
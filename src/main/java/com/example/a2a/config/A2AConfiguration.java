@@ -1,6 +1,10 @@
 package com.example.a2a.config;
 
+import com.example.a2a.model.TaskJsonModule;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
 import io.a2a.spec.AgentCapabilities;
 import io.a2a.spec.AgentCard;
 import io.a2a.spec.AgentSkill;
@@ -20,11 +24,19 @@ public class A2AConfiguration {
     @Value("${server.servlet.context-path:/}")
     private String contextPath;
 
+    /**
+     * The modules are listed rather than found on the classpath, so startup does no
+     * service-loader scan and a new jar cannot change the wire format unnoticed. They
+     * are the ones spring-boot-starter-json brings, plus the hand-written task serializers.
+     */
     @Bean
     @Primary
     public ObjectMapper objectMapper() {
         ObjectMapper mapper = new ObjectMapper();
-        mapper.findAndRegisterModules(); // This will auto-register JSR310 module if available
+        mapper.registerModule(new Jdk8Module());
+        mapper.registerModule(new JavaTimeModule());
+        mapper.registerModule(new ParameterNamesModule());
+        mapper.registerModule(new TaskJsonModule());
         return mapper;
     }
 
@@ -40,6 +52,7 @@ public class A2AConfiguration {
                 .capabilities(new AgentCapabilities.Builder()
                         .streaming(true)
                         .pushNotifications(false)
+                        .stateTransitionHistory(true)
                         .build())
                 .defaultInputModes(List.of("text"))
                 .defaultOutputModes(List.of("text"))
@@ -0,0 +1,58 @@
+package com.example.a2a.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-group JSON-RPC concurrency limits under {@code a2a.jsonrpc.bulkheads}.
+ * Groups are declared with {@code @JsonRpcMethod(group = ...)}.
+ */
+@ConfigurationProperties(prefix = "a2a.jsonrpc.bulkheads")
+public class JsonRpcBulkheadProperties {
+
+    /** Limits for groups without an entry in {@link #groups}. */
+    private Limits defaults = new Limits(32, 32, 1000L);
+
+    private Map<String, Limits> groups = new LinkedHashMap<>();
+
+    public Limits getDefaults() { return defaults; }
+    public void setDefaults(Limits defaults) { this.defaults = defaults; }
+    public Map<String, Limits> getGroups() { return groups; }
+    public void setGroups(Map<String, Limits> groups) { this.groups = groups; }
+
+    /**
+     * Limits of one group. Fields left unset take the value from {@link #defaults}.
+     */
+    public static class Limits {
+        private Integer maxConcurrent;
+        private Integer queueCapacity;
+        private Long maxWaitMs;
+
+        public Limits() {
+        }
+
+        Limits(Integer maxConcurrent, Integer queueCapacity, Long maxWaitMs) {
+            this.maxConcurrent = maxConcurrent;
+            this.queueCapacity = queueCapacity;
+            this.maxWaitMs = maxWaitMs;
+        }
+
+        public Integer getMaxConcurrent() { return maxConcurrent; }
+        public void setMaxConcurrent(Integer maxConcurrent) { this.maxConcurrent = maxConcurrent; }
+        public Integer getQueueCapacity() { return queueCapacity; }
+        public void setQueueCapacity(Integer queueCapacity) { this.queueCapacity = queueCapacity; }
+        public Long getMaxWaitMs() { return maxWaitMs; }
+        public void setMaxWaitMs(Long maxWaitMs) { this.maxWaitMs = maxWaitMs; }
+
+        /**
+         * @return these limits with every unset field taken from {@code fallback}
+         */
+        public Limits orElse(Limits fallback) {
+            return new Limits(maxConcurrent != null ? maxConcurrent : fallback.maxConcurrent,
+                    queueCapacity != null ? queueCapacity : fallback.queueCapacity,
+                    maxWaitMs != null ? maxWaitMs : fallback.maxWaitMs);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.a2a.config;
+
+import com.example.a2a.jsonrpc.JsonRpcBulkheads;
+import com.example.a2a.jsonrpc.JsonRpcDispatcher;
+import com.example.a2a.jsonrpc.JsonRpcRateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * JSON-RPC transport configuration.
+ * Sets up the bounded executors used to dispatch batch entries concurrently
+ * and to run notifications in the background, the readers of pipelined NDJSON
+ * streams, the per-client rate limiter and the per-group bulkheads.
+ */
+@Configuration
+@EnableConfigurationProperties({JsonRpcRateLimitProperties.class, JsonRpcBulkheadProperties.class})
+public class JsonRpcConfiguration {
+
+    @Value("${a2a.jsonrpc.batch.threads:8}")
+    private int batchThreads;
+
+    @Value("${a2a.jsonrpc.batch.queue-capacity:256}")
+    private int batchQueueCapacity;
+
+    @Value("${a2a.jsonrpc.notifications.threads:4}")
+    private int notificationThreads;
+
+    @Value("${a2a.jsonrpc.notifications.queue-capacity:1000}")
+    private int notificationQueueCapacity;
+
+    @Value("${a2a.jsonrpc.pipeline.max-streams:32}")
+    private int pipelineMaxStreams;
+
+    /**
+     * Fixed-size pool with a bounded queue for batch entries and pipelined calls.
+     * Submissions beyond the queue capacity are rejected and answered as overloaded,
+     * so no entry runs on the request thread, outside its batch deadline.
+     */
+    @Bean
+    public ExecutorService jsonRpcBatchExecutor() {
+        AtomicInteger threadCount = new AtomicInteger();
+        return new ThreadPoolExecutor(
+                batchThreads,
+                batchThreads,
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(batchQueueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "jsonrpc-batch-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Fire-and-forget pool for JSON-RPC notifications. Submissions beyond the queue
+     * capacity are rejected rather than run on the request thread. Queue depth and
+     * active threads are published as {@code executor.*} metrics tagged
+     * {@code name=jsonrpc.notifications}.
+     */
+    @Bean
+    public ExecutorService jsonRpcNotificationExecutor(MeterRegistry meterRegistry) {
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                notificationThreads,
+                notificationThreads,
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(notificationQueueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "jsonrpc-notify-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        new ExecutorServiceMetrics(executor, "jsonrpc.notifications", Tags.empty()).bindTo(meterRegistry);
+        return executor;
+    }
+
+    /**
+     * One thread per open NDJSON pipeline, reading request lines off the body.
+     * Streams beyond {@code a2a.jsonrpc.pipeline.max-streams} are rejected.
+     */
+    @Bean
+    public ExecutorService jsonRpcPipelineExecutor() {
+        AtomicInteger threadCount = new AtomicInteger();
+        return new ThreadPoolExecutor(
+                0,
+                pipelineMaxStreams,
+                60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "jsonrpc-pipeline-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Per-client token buckets. Not registered when {@code a2a.jsonrpc.rate-limit.enabled=false}.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "a2a.jsonrpc.rate-limit", name = "enabled", matchIfMissing = true)
+    public JsonRpcRateLimiter jsonRpcRateLimiter(JsonRpcRateLimitProperties properties, JsonRpcDispatcher dispatcher) {
+        Map<String, JsonRpcRateLimiter.Rate> methodRates = new HashMap<>();
+        properties.getMethods().forEach((method, rate) -> methodRates.put(method, toRate(rate)));
+        return new JsonRpcRateLimiter(toRate(properties.getDefaults()), methodRates, dispatcher::hasMethod,
+                properties.getIdleTtlMs());
+    }
+
+    /**
+     * Concurrency limits per {@code @JsonRpcMethod} isolation group.
+     */
+    @Bean
+    public JsonRpcBulkheads jsonRpcBulkheads(JsonRpcBulkheadProperties properties, MeterRegistry meterRegistry) {
+        Map<String, JsonRpcBulkheads.Limits> groupLimits = new HashMap<>();
+        JsonRpcBulkheadProperties.Limits defaults = properties.getDefaults();
+        properties.getGroups().forEach((group, limits) -> groupLimits.put(group, toLimits(limits.orElse(defaults))));
+        return new JsonRpcBulkheads(toLimits(defaults), groupLimits, meterRegistry);
+    }
+
+    private static JsonRpcBulkheads.Limits toLimits(JsonRpcBulkheadProperties.Limits limits) {
+        return new JsonRpcBulkheads.Limits(limits.getMaxConcurrent(), limits.getQueueCapacity(), limits.getMaxWaitMs());
+    }
+
+    private static JsonRpcRateLimiter.Rate toRate(JsonRpcRateLimitProperties.Rate rate) {
+        return new JsonRpcRateLimiter.Rate(rate.getPermitsPerSecond(), rate.getBurst());
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.a2a.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-client JSON-RPC rate limits under {@code a2a.jsonrpc.rate-limit}.
+ * Method names contain a slash, so per-method entries use bracket keys,
+ * e.g. {@code a2a.jsonrpc.rate-limit.methods[message/send].permits-per-second}.
+ */
+@ConfigurationProperties(prefix = "a2a.jsonrpc.rate-limit")
+public class JsonRpcRateLimitProperties {
+
+    private boolean enabled = true;
+
+    /** Rate for methods without an entry in {@link #methods}. */
+    private Rate defaults = new Rate(50, 100);
+
+    private Map<String, Rate> methods = new LinkedHashMap<>();
+
+    /** Buckets untouched for this long are full and get dropped. */
+    private long idleTtlMs = 300_000;
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    public Rate getDefaults() { return defaults; }
+    public void setDefaults(Rate defaults) { this.defaults = defaults; }
+    public Map<String, Rate> getMethods() { return methods; }
+    public void setMethods(Map<String, Rate> methods) { this.methods = methods; }
+    public long getIdleTtlMs() { return idleTtlMs; }
+    public void setIdleTtlMs(long idleTtlMs) { this.idleTtlMs = idleTtlMs; }
+
+    public static class Rate {
+        private double permitsPerSecond;
+        private int burst;
+
+        public Rate() {
+        }
+
+        Rate(double permitsPerSecond, int burst) {
+            this.permitsPerSecond = permitsPerSecond;
+            this.burst = burst;
+        }
+
+        public double getPermitsPerSecond() { return permitsPerSecond; }
+        public void setPermitsPerSecond(double permitsPerSecond) { this.permitsPerSecond = permitsPerSecond; }
+        public int getBurst() { return burst; }
+        public void setBurst(int burst) { this.burst = burst; }
+    }
+}
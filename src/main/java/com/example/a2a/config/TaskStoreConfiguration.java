@@ -0,0 +1,70 @@
+package com.example.a2a.config;
+
+import com.example.a2a.service.OffHeapTextStore;
+import com.example.a2a.service.TaskLog;
+import com.example.a2a.service.TaskService;
+import com.example.a2a.service.TaskSnapshot;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Optional storage backends of the task store.
+ * With {@code a2a.tasks.wal.enabled} set, every task transition is appended to a
+ * segmented write-ahead log, and the store is rebuilt from it on startup. With
+ * {@code a2a.tasks.off-heap.enabled} set, task results are kept in direct memory.
+ * With {@code a2a.tasks.snapshot.enabled} set, the store is copied to a file
+ * periodically and on shutdown, and reloaded from it on startup.
+ */
+@Configuration
+public class TaskStoreConfiguration {
+
+    @Value("${a2a.tasks.wal.directory:data/tasks}")
+    private String walDirectory;
+
+    @Value("${a2a.tasks.wal.segment-bytes:67108864}")
+    private long walSegmentBytes;
+
+    @Value("${a2a.tasks.wal.fsync-interval-ms:0}")
+    private long walFsyncIntervalMs;
+
+    @Value("${a2a.tasks.wal.compact-interval-ms:600000}")
+    private long walCompactIntervalMs;
+
+    @Value("${a2a.tasks.off-heap.slab-bytes:1048576}")
+    private int offHeapSlabBytes;
+
+    @Value("${a2a.tasks.off-heap.grace-ms:30000}")
+    private long offHeapGraceMs;
+
+    @Value("${a2a.tasks.snapshot.file:data/tasks.snapshot}")
+    private String snapshotFile;
+
+    @Value("${a2a.tasks.snapshot.interval-ms:60000}")
+    private long snapshotIntervalMs;
+
+    @Bean
+    @ConditionalOnProperty(prefix = "a2a.tasks.wal", name = "enabled")
+    public TaskLog taskLog() throws IOException {
+        return new TaskLog(Path.of(walDirectory), walSegmentBytes, walFsyncIntervalMs, walCompactIntervalMs);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "a2a.tasks.off-heap", name = "enabled")
+    public OffHeapTextStore offHeapTextStore(MeterRegistry meterRegistry) {
+        return new OffHeapTextStore(offHeapSlabBytes, offHeapGraceMs, meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "a2a.tasks.snapshot", name = "enabled")
+    public TaskSnapshot taskSnapshot(TaskService taskService) {
+        TaskSnapshot snapshot = new TaskSnapshot(Path.of(snapshotFile), snapshotIntervalMs, taskService);
+        snapshot.recover();
+        return snapshot;
+    }
+}
@@ -1,17 +1,30 @@
 package com.example.a2a.config;
 
-import org.springframework.context.annotation.Bean;
+import com.example.a2a.jsonrpc.JsonRpcHttpMessageConverter;
+import com.example.a2a.jsonrpc.JsonRpcMappers;
+import com.example.a2a.jsonrpc.JsonRpcResponseWriter;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.util.List;
+
 /**
  * Web Configuration
- * Sets up CORS for JSON-RPC endpoints
+ * Sets up CORS for JSON-RPC endpoints and the streaming JSON-RPC response converter
  */
 @Configuration
 public class WebConfiguration implements WebMvcConfigurer {
 
+    private final JsonRpcMappers mappers;
+    private final JsonRpcResponseWriter responseWriter;
+
+    public WebConfiguration(JsonRpcMappers mappers, JsonRpcResponseWriter responseWriter) {
+        this.mappers = mappers;
+        this.responseWriter = responseWriter;
+    }
+
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/**")
@@ -20,4 +33,9 @@ public class WebConfiguration implements WebMvcConfigurer {
                 .allowedHeaders("*")
                 .maxAge(3600);
     }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(0, new JsonRpcHttpMessageConverter(mappers, responseWriter));
+    }
 }
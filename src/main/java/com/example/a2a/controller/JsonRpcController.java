@@ -1,82 +1,568 @@
 package com.example.a2a.controller;
 
 import com.example.a2a.jsonrpc.A2aJsonRpcService;
+import com.example.a2a.jsonrpc.A2aJsonRpcServiceInvoker;
+import com.example.a2a.jsonrpc.JsonRpcBatchResponse;
+import com.example.a2a.jsonrpc.JsonRpcBulkhead;
+import com.example.a2a.jsonrpc.JsonRpcBulkheads;
 import com.example.a2a.jsonrpc.JsonRpcDispatcher;
+import com.example.a2a.jsonrpc.JsonRpcMappers;
+import com.example.a2a.jsonrpc.JsonRpcRateLimiter;
+import com.example.a2a.jsonrpc.JsonRpcRequest;
+import com.example.a2a.jsonrpc.JsonRpcRequestReader;
+import com.example.a2a.jsonrpc.JsonRpcResponse;
+import com.example.a2a.jsonrpc.JsonRpcResponseWriter;
 import com.example.a2a.jsonrpc.TaskException;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.exc.StreamReadException;
 import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 
 @RestController
 public class JsonRpcController {
 
     private static final Logger logger = LoggerFactory.getLogger(JsonRpcController.class);
-    private static final String JSONRPC_VERSION = "2.0";
+    private static final long PIPELINE_POLL_MS = 100;
 
     private final JsonRpcDispatcher dispatcher;
+    private final JsonRpcRequestReader requestReader;
+    private final JsonRpcMappers mappers;
+    private final JsonRpcResponseWriter responseWriter;
     private final A2aJsonRpcService rpcService;
-    private final ObjectMapper objectMapper;
+    private final ExecutorService batchExecutor;
+    private final ExecutorService notificationExecutor;
+    private final ExecutorService pipelineExecutor;
+    private final JsonRpcRateLimiter rateLimiter;
+    private final JsonRpcBulkheads bulkheads;
+
+    @Value("${a2a.jsonrpc.batch.max-size:50}")
+    private int maxBatchSize;
+
+    @Value("${a2a.jsonrpc.batch.timeout-ms:30000}")
+    private long batchTimeoutMs;
+
+    @Value("${a2a.jsonrpc.async.timeout-ms:60000}")
+    private long asyncTimeoutMs;
+
+    @Value("${a2a.jsonrpc.pipeline.max-in-flight:64}")
+    private int pipelineMaxInFlight;
+
+    @Value("${a2a.jsonrpc.pipeline.timeout-ms:0}")
+    private long pipelineTimeoutMs;
 
-    public JsonRpcController(JsonRpcDispatcher dispatcher, A2aJsonRpcService rpcService, ObjectMapper objectMapper) {
+    public JsonRpcController(JsonRpcDispatcher dispatcher, JsonRpcRequestReader requestReader,
+                             JsonRpcMappers mappers, JsonRpcResponseWriter responseWriter,
+                             A2aJsonRpcService rpcService,
+                             @Qualifier("jsonRpcBatchExecutor") ExecutorService batchExecutor,
+                             @Qualifier("jsonRpcNotificationExecutor") ExecutorService notificationExecutor,
+                             @Qualifier("jsonRpcPipelineExecutor") ExecutorService pipelineExecutor,
+                             ObjectProvider<JsonRpcRateLimiter> rateLimiter,
+                             JsonRpcBulkheads bulkheads) {
         this.dispatcher = dispatcher;
+        this.requestReader = requestReader;
+        this.mappers = mappers;
+        this.responseWriter = responseWriter;
         this.rpcService = rpcService;
-        this.objectMapper = objectMapper;
+        this.batchExecutor = batchExecutor;
+        this.notificationExecutor = notificationExecutor;
+        this.pipelineExecutor = pipelineExecutor;
+        this.rateLimiter = rateLimiter.getIfAvailable();
+        this.bulkheads = bulkheads;
     }
 
     @PostConstruct
     public void init() {
-        dispatcher.registerService(rpcService);
+        dispatcher.register(new A2aJsonRpcServiceInvoker(rpcService));
+    }
+
+    /**
+     * Handle a JSON-RPC request or batch, encoded as JSON or CBOR. The response is
+     * written in the one of the two formats the {@code Accept} header prefers, and in the
+     * request's format when it prefers neither, e.g. when it is missing or malformed.
+     * Synchronous results are written on the request thread. When a method returns
+     * a pending {@link CompletionStage} the container thread is released and the
+     * response is written once the stage completes. Every call, batch entries and
+     * notifications included, is charged to the caller's per-method rate limit.
+     */
+    @PostMapping(value = "/", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public Object handleJsonRpc(InputStream body,
+                                @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                HttpServletRequest servletRequest) throws IOException {
+        String client = clientKey(servletRequest);
+        MediaType type = responseType(contentType, accept);
+        try (JsonParser parser = requestReader.open(body, contentType)) {
+            JsonToken first = parser.nextToken();
+            if (first == null) {
+                return ok(type, JsonRpcResponse.error(null, -32600, "Invalid Request"));
+            }
+            if (first == JsonToken.START_ARRAY) {
+                return handleBatch(parser, client, type);
+            }
+            JsonRpcRequest request = requestReader.read(parser);
+            if (request.isNotification()) {
+                return handleNotification(request, client);
+            }
+            CompletableFuture<ResponseEntity<?>> response = execute(request, client).thenApply(value -> ok(type, value));
+            return respond(response, () -> ok(type, timeoutError(request.getId())));
+        } catch (StreamReadException e) {
+            logger.error("JSON-RPC parse error: {}", e.getOriginalMessage());
+            return ok(type, JsonRpcResponse.error(null, -32700, "Parse error"));
+        }
+    }
+
+    /**
+     * Pipelined mode: the body is a stream of newline-delimited JSON-RPC requests and
+     * the response a stream of newline-delimited responses. Each request is dispatched
+     * on the batch executor as soon as it is parsed and its response is written as soon
+     * as it completes, so responses arrive out of order and are correlated by {@code id}.
+     * At most {@code a2a.jsonrpc.pipeline.max-in-flight} calls run at once per stream;
+     * the reader stops pulling lines until one finishes. Each call is answered with a
+     * timeout error after {@code a2a.jsonrpc.async.timeout-ms}, as a single call is, and
+     * a reader waiting for a free slot gives up once the stream is closed.
+     */
+    @PostMapping(value = "/",
+            consumes = MediaType.APPLICATION_NDJSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Object handlePipeline(InputStream body, HttpServletRequest servletRequest) {
+        String client = clientKey(servletRequest);
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(pipelineTimeoutMs);
+        AtomicBoolean closed = new AtomicBoolean();
+        emitter.onCompletion(() -> closed.set(true));
+        emitter.onError(error -> closed.set(true));
+        emitter.onTimeout(() -> closed.set(true));
+        try {
+            pipelineExecutor.execute(() -> runPipeline(body, client, emitter, closed));
+        } catch (RejectedExecutionException e) {
+            logger.warn("Too many open JSON-RPC pipelines, rejecting client={}", client);
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return emitter;
+    }
+
+    private void runPipeline(InputStream body, String client, ResponseBodyEmitter emitter, AtomicBoolean closed) {
+        Semaphore inFlight = new Semaphore(pipelineMaxInFlight);
+        int count = 0;
+        try (JsonParser parser = requestReader.open(body, MediaType.APPLICATION_JSON)) {
+            while (!closed.get() && parser.nextToken() != null) {
+                JsonRpcRequest request = requestReader.read(parser);
+                count++;
+                if (request.isNotification()) {
+                    if (throttle(request, client) > 0) {
+                        logger.warn("Rate limit exceeded, dropping pipelined notification: client={}, method={}",
+                                client, request.getMethod());
+                    } else {
+                        submitNotification(request);
+                    }
+                    continue;
+                }
+                if (!acquire(inFlight, 1, closed)) {
+                    break;
+                }
+                BatchCall call = submit(request, client);
+                call.response()
+                        .orTimeout(asyncTimeoutMs, TimeUnit.MILLISECONDS)
+                        .whenComplete((response, error) -> {
+                            try {
+                                if (response == null) {
+                                    call.abandon();
+                                }
+                                sendLine(emitter, closed, response != null ? response
+                                        : unwrap(error) instanceof TimeoutException ? timeoutError(request.getId())
+                                        : JsonRpcResponse.error(request.getId(), -32603, "Internal error"));
+                            } finally {
+                                inFlight.release();
+                            }
+                        });
+            }
+        } catch (StreamReadException e) {
+            logger.error("JSON-RPC pipeline parse error: {}", e.getOriginalMessage());
+            sendLine(emitter, closed, JsonRpcResponse.error(null, -32700, "Parse error"));
+        } catch (IOException e) {
+            logger.warn("JSON-RPC pipeline read failed: {}", e.getMessage());
+        }
+        logger.info("JSON-RPC pipeline: {} entries read, client={}", count, client);
+
+        if (acquire(inFlight, pipelineMaxInFlight, closed) && closed.compareAndSet(false, true)) {
+            emitter.complete();
+        }
+    }
+
+    /**
+     * Wait for {@code permits} pipeline slots, checking now and then whether the client
+     * went away.
+     *
+     * @return {@code false} if the stream was closed first
+     */
+    private static boolean acquire(Semaphore inFlight, int permits, AtomicBoolean closed) {
+        try {
+            while (!closed.get()) {
+                if (inFlight.tryAcquire(permits, PIPELINE_POLL_MS, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    private void sendLine(ResponseBodyEmitter emitter, AtomicBoolean closed, JsonRpcResponse response) {
+        if (closed.get()) {
+            return;
+        }
+        try {
+            ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+            try (JsonGenerator gen = mappers.json().getFactory().createGenerator(line, JsonEncoding.UTF8)) {
+                responseWriter.write(gen, response);
+            }
+            line.write('\n');
+            emitter.send(line.toByteArray(), MediaType.APPLICATION_NDJSON);
+        } catch (IOException | IllegalStateException e) {
+            logger.warn("JSON-RPC pipeline closed while writing: {}", e.getMessage());
+            if (closed.compareAndSet(false, true)) {
+                emitter.completeWithError(e);
+            }
+        }
     }
 
-    @PostMapping(value = "/", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<JsonNode> handleJsonRpc(@RequestBody JsonNode request) {
-        String id = request.path("id").asText();
-        String method = request.path("method").asText();
-        JsonNode params = request.path("params");
+    private Object handleBatch(JsonParser parser, String client, MediaType type) throws IOException {
+        List<JsonRpcRequest> entries = new ArrayList<>();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (entries.size() == maxBatchSize) {
+                logger.warn("Rejecting JSON-RPC batch larger than {} entries", maxBatchSize);
+                return ok(type, JsonRpcResponse.error(null, -32600,
+                        "Invalid Request: batch exceeds " + maxBatchSize + " entries"));
+            }
+            entries.add(requestReader.read(parser));
+        }
+        if (entries.isEmpty()) {
+            return ok(type, JsonRpcResponse.error(null, -32600, "Invalid Request: empty batch"));
+        }
+
+        logger.info("JSON-RPC batch: {} entries", entries.size());
+
+        List<JsonRpcRequest> batch = new ArrayList<>(entries.size());
+        for (JsonRpcRequest entry : entries) {
+            if (entry.isNotification()) {
+                if (throttle(entry, client) > 0) {
+                    logger.warn("Rate limit exceeded, dropping batched notification: client={}, method={}",
+                            client, entry.getMethod());
+                } else {
+                    submitNotification(entry);
+                }
+            } else {
+                batch.add(entry);
+            }
+        }
+        if (batch.isEmpty()) {
+            return ResponseEntity.accepted().build();
+        }
 
-        logger.info("JSON-RPC request: method={}, id={}", method, id);
+        CompletableFuture<Void> deadline = new CompletableFuture<Void>()
+                .completeOnTimeout(null, batchTimeoutMs, TimeUnit.MILLISECONDS);
+        List<BatchCall> calls = new ArrayList<>(batch.size());
+        for (JsonRpcRequest entry : batch) {
+            calls.add(submit(entry, client));
+        }
 
+        CompletableFuture<ResponseEntity<?>> response = CompletableFuture
+                .anyOf(CompletableFuture.allOf(calls.stream().map(BatchCall::response).toArray(CompletableFuture[]::new)),
+                        deadline)
+                .handle((ignored, error) -> {
+                    List<JsonRpcResponse> responses = new ArrayList<>(calls.size());
+                    for (int i = 0; i < calls.size(); i++) {
+                        BatchCall call = calls.get(i);
+                        if (call.response().isDone()) {
+                            responses.add(call.response().join());
+                        } else {
+                            call.abandon();
+                            responses.add(JsonRpcResponse.error(batch.get(i).getId(), -32603,
+                                    "Internal error: batch deadline exceeded"));
+                        }
+                    }
+                    return ok(type, new JsonRpcBatchResponse(responses));
+                });
+        return respond(response, () -> ok(type, timeoutError(null)));
+    }
+
+    /**
+     * Run {@code request} on the batch executor as a task that can be interrupted. A call
+     * the executor has no room for is answered as overloaded at once, so batch entries
+     * never run on the request thread, outside the batch deadline.
+     */
+    private BatchCall submit(JsonRpcRequest request, String client) {
+        CompletableFuture<JsonRpcResponse> response = new CompletableFuture<>();
+        FutureTask<Void> task = new FutureTask<>(() -> execute(request, client).thenAccept(response::complete), null);
         try {
-            Object result = dispatcher.dispatch(method, params);
-            return ResponseEntity.ok(createResponse(id, result));
-        } catch (JsonRpcDispatcher.JsonRpcException e) {
+            batchExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            logger.warn("Batch executor full, rejecting: method={}, id={}", request.getMethod(), request.getId());
+            response.complete(JsonRpcResponse.error(request.getId(), JsonRpcBulkhead.OVERLOADED, "Server busy",
+                    Map.of("group", "batch")));
+        }
+        return new BatchCall(task, response);
+    }
+
+    /**
+     * A call running on the batch executor and its response.
+     */
+    private record BatchCall(Future<?> task, CompletableFuture<JsonRpcResponse> response) {
+
+        /**
+         * Give up on the call once its deadline passed: it is dropped if it has not
+         * started, otherwise its thread is interrupted. A method that ignores the
+         * interrupt, or whose {@link CompletionStage} is still pending, runs on and keeps
+         * its bulkhead slot until it finishes, so the group's limit still counts it.
+         */
+        void abandon() {
+            task.cancel(true);
+        }
+    }
+
+    /**
+     * Invoke a bound request inside its method's bulkhead. The slot is held until the
+     * result, synchronous or a {@link CompletionStage}, is available. Failures are mapped
+     * to error responses, so the returned future never completes exceptionally.
+     */
+    private CompletableFuture<JsonRpcResponse> execute(JsonRpcRequest request, String client) {
+        String id = request.getId();
+        long retryAfterMs = throttle(request, client);
+        if (retryAfterMs > 0) {
+            logger.warn("Rate limit exceeded: client={}, method={}, retryAfterMs={}",
+                    client, request.getMethod(), retryAfterMs);
+            return CompletableFuture.completedFuture(JsonRpcResponse.error(id, JsonRpcRateLimiter.RATE_LIMITED,
+                    "Rate limit exceeded", Map.of("retryAfterMs", retryAfterMs)));
+        }
+        if (request.getError() != null) {
+            JsonRpcDispatcher.JsonRpcException e = request.getError();
             logger.error("JSON-RPC error: code={}, message={}", e.getCode(), e.getMessage());
-            return ResponseEntity.ok(createErrorResponse(id, e.getCode(), e.getMessage()));
-        } catch (TaskException e) {
+            return CompletableFuture.completedFuture(JsonRpcResponse.error(id, e.getCode(), e.getMessage()));
+        }
+
+        JsonRpcBulkhead bulkhead = bulkheads.forGroup(dispatcher.groupOf(request.getMethod()));
+        if (!bulkhead.tryEnter()) {
+            logger.warn("Bulkhead full, rejecting: group={}, method={}, id={}",
+                    bulkhead.getName(), request.getMethod(), id);
+            return CompletableFuture.completedFuture(overloaded(id, bulkhead));
+        }
+
+        logger.info("JSON-RPC request: method={}, id={}", request.getMethod(), id);
+
+        boolean pending = false;
+        try {
+            Object result = request.getCall().invoke();
+            if (result instanceof CompletionStage<?> stage) {
+                CompletableFuture<JsonRpcResponse> response = stage.toCompletableFuture()
+                        .handle((value, error) -> error == null
+                                ? JsonRpcResponse.success(id, value)
+                                : toErrorResponse(id, unwrap(error)));
+                pending = true;
+                response.whenComplete((value, error) -> bulkhead.exit());
+                return response;
+            }
+            return CompletableFuture.completedFuture(JsonRpcResponse.success(id, result));
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(toErrorResponse(id, e));
+        } finally {
+            if (!pending) {
+                bulkhead.exit();
+            }
+        }
+    }
+
+    private static JsonRpcResponse overloaded(String id, JsonRpcBulkhead bulkhead) {
+        return JsonRpcResponse.error(id, JsonRpcBulkhead.OVERLOADED, "Server busy",
+                Map.of("group", bulkhead.getName()));
+    }
+
+    private JsonRpcResponse toErrorResponse(String id, Throwable error) {
+        if (error instanceof TaskException e) {
             logger.error("Task error: code={}, message={}", e.getCode(), e.getMessage());
-            return ResponseEntity.ok(createErrorResponse(id, e.getCode(), e.getMessage()));
+            return JsonRpcResponse.error(id, e.getCode(), e.getMessage());
+        }
+        logger.error("Unexpected error", error);
+        return JsonRpcResponse.error(id, -32603, "Internal error: " + error.getMessage());
+    }
+
+    /**
+     * A 200 response whose content type is fixed up front, so Spring's content
+     * negotiation writes it in that format rather than choosing one from {@code Accept}.
+     */
+    private static ResponseEntity<?> ok(MediaType type, Object body) {
+        return ResponseEntity.ok().contentType(type).body(body);
+    }
+
+    /**
+     * CBOR or JSON, whichever {@code accept} gives the higher quality; the format of the
+     * request when it names neither, names both alike or cannot be parsed. The starter's
+     * {@code A2AController} answers by the same rule.
+     */
+    private static MediaType responseType(MediaType requestType, String accept) {
+        MediaType requested = MediaType.APPLICATION_CBOR.equalsTypeAndSubtype(requestType)
+                ? MediaType.APPLICATION_CBOR : MediaType.APPLICATION_JSON;
+        if (accept == null) {
+            return requested;
+        }
+        double json = 0;
+        double cbor = 0;
+        try {
+            for (MediaType type : MediaType.parseMediaTypes(accept)) {
+                if (MediaType.APPLICATION_JSON.equalsTypeAndSubtype(type)) {
+                    json = Math.max(json, type.getQualityValue());
+                } else if (MediaType.APPLICATION_CBOR.equalsTypeAndSubtype(type)) {
+                    cbor = Math.max(cbor, type.getQualityValue());
+                }
+            }
+        } catch (InvalidMediaTypeException e) {
+            return requested;
+        }
+        return cbor > json ? MediaType.APPLICATION_CBOR : json > cbor ? MediaType.APPLICATION_JSON : requested;
+    }
+
+    private JsonRpcResponse timeoutError(String id) {
+        return JsonRpcResponse.error(id, -32603, "Internal error: request timed out");
+    }
+
+    /**
+     * Return a completed response directly. Otherwise return a {@link DeferredResult};
+     * Spring MVC selects the return value handler by the runtime type, so only pending
+     * responses go through servlet async processing and release the container thread.
+     */
+    private Object respond(CompletableFuture<ResponseEntity<?>> response, Supplier<ResponseEntity<?>> onTimeout) {
+        if (response.isDone()) {
+            return response.join();
+        }
+        DeferredResult<ResponseEntity<?>> deferred = new DeferredResult<>(asyncTimeoutMs, onTimeout);
+        response.whenComplete((value, error) -> deferred.setResult(value));
+        return deferred;
+    }
+
+    /**
+     * Notifications get no response body: the call is queued on the notification
+     * executor and 202 is returned at once, or 503 if the queue is full, or 429
+     * with {@code Retry-After} if the client is over its rate limit.
+     */
+    private ResponseEntity<?> handleNotification(JsonRpcRequest request, String client) {
+        long retryAfterMs = throttle(request, client);
+        if (retryAfterMs > 0) {
+            logger.warn("Rate limit exceeded, rejecting notification: client={}, method={}",
+                    client, request.getMethod());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(TimeUnit.MILLISECONDS.toSeconds(retryAfterMs + 999)))
+                    .build();
+        }
+        if (!submitNotification(request)) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.accepted().build();
+    }
+
+    private boolean submitNotification(JsonRpcRequest request) {
+        if (request.getError() != null) {
+            logger.warn("Dropping invalid notification: method={}, error={}",
+                    request.getMethod(), request.getError().getMessage());
+            return true;
+        }
+        try {
+            notificationExecutor.execute(() -> runNotification(request));
+            return true;
+        } catch (RejectedExecutionException e) {
+            logger.warn("Notification queue full, dropping method={}", request.getMethod());
+            return false;
+        }
+    }
+
+    private void runNotification(JsonRpcRequest request) {
+        JsonRpcBulkhead bulkhead = bulkheads.forGroup(dispatcher.groupOf(request.getMethod()));
+        if (!bulkhead.tryEnter()) {
+            logger.warn("Bulkhead full, dropping notification: group={}, method={}",
+                    bulkhead.getName(), request.getMethod());
+            return;
+        }
+        logger.info("JSON-RPC notification: method={}", request.getMethod());
+        boolean pending = false;
+        try {
+            Object result = request.getCall().invoke();
+            if (result instanceof CompletionStage<?> stage) {
+                pending = true;
+                stage.whenComplete((value, error) -> {
+                    bulkhead.exit();
+                    if (error != null) {
+                        logNotificationError(unwrap(error));
+                    }
+                });
+            }
         } catch (Exception e) {
-            logger.error("Unexpected error", e);
-            return ResponseEntity.ok(createErrorResponse(id, -32603, "Internal error: " + e.getMessage()));
-        }
-    }
-
-    private JsonNode createResponse(String id, Object result) {
-        ObjectNode response = objectMapper.createObjectNode();
-        response.put("jsonrpc", JSONRPC_VERSION);
-        response.put("id", id);
-        response.set("result", objectMapper.valueToTree(result));
-        return response;
-    }
-
-    private JsonNode createErrorResponse(String id, int code, String message) {
-        ObjectNode response = objectMapper.createObjectNode();
-        response.put("jsonrpc", JSONRPC_VERSION);
-        response.put("id", id);
-        
-        ObjectNode error = objectMapper.createObjectNode();
-        error.put("code", code);
-        error.put("message", message);
-        response.set("error", error);
-        
-        return response;
+            logNotificationError(e);
+        } finally {
+            if (!pending) {
+                bulkhead.exit();
+            }
+        }
+    }
+
+    private void logNotificationError(Throwable error) {
+        if (error instanceof TaskException e) {
+            logger.error("Task error in notification: code={}, message={}", e.getCode(), e.getMessage());
+        } else {
+            logger.error("Unexpected error in notification", error);
+        }
+    }
+
+    /**
+     * @return milliseconds until the call would be admitted, {@code 0} if it is admitted now
+     */
+    private long throttle(JsonRpcRequest request, String client) {
+        return rateLimiter == null ? 0 : rateLimiter.tryAcquire(client, request.getMethod());
+    }
+
+    /**
+     * Rate limit key: the authenticated user when there is one, else the remote address.
+     */
+    private static String clientKey(HttpServletRequest request) {
+        String user = request.getRemoteUser();
+        return user != null ? "user:" + user : "addr:" + request.getRemoteAddr();
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
     }
 }
@@ -1,29 +1,44 @@
 package com.example.a2a.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.a2a.spec.AgentCard;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.Duration;
 import java.util.Map;
 
 @RestController
 public class MessageController {
 
     private final AgentCard agentCard;
+    private final CachedAgentCard cachedAgentCard;
 
-    public MessageController(AgentCard agentCard) {
+    public MessageController(AgentCard agentCard,
+                             ObjectMapper objectMapper,
+                             @Value("${a2a.agent-card.max-age-seconds:300}") long maxAgeSeconds) {
         this.agentCard = agentCard;
+        this.cachedAgentCard = new CachedAgentCard(agentCard, objectMapper,
+                CacheControl.maxAge(Duration.ofSeconds(maxAgeSeconds)).cachePublic());
     }
 
     @GetMapping("/.well-known/agent-card.json")
-    public ResponseEntity<AgentCard> getAgentCard() {
-        return ResponseEntity.ok(agentCard);
+    public ResponseEntity<byte[]> getAgentCard(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return cachedAgentCard.respond(ifNoneMatch, acceptEncoding);
     }
 
     @GetMapping("/card")
-    public ResponseEntity<AgentCard> getAgentCardAlt() {
-        return ResponseEntity.ok(agentCard);
+    public ResponseEntity<byte[]> getAgentCardAlt(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return cachedAgentCard.respond(ifNoneMatch, acceptEncoding);
     }
 
     @GetMapping("/health")
@@ -1,22 +1,28 @@
 package com.example.a2a.controller;
 
 import com.example.a2a.service.StreamingService;
+import com.example.a2a.service.TaskService;
 import com.fasterxml.jackson.databind.JsonNode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.util.Map;
+
 @RestController
 public class StreamingController {
 
     private static final Logger logger = LoggerFactory.getLogger(StreamingController.class);
 
     private final StreamingService streamingService;
+    private final TaskService taskService;
 
-    public StreamingController(StreamingService streamingService) {
+    public StreamingController(StreamingService streamingService, TaskService taskService) {
         this.streamingService = streamingService;
+        this.taskService = taskService;
     }
 
     @PostMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
@@ -48,6 +54,14 @@ public class StreamingController {
         };
     }
 
+    @GetMapping("/stream/{taskId}/subscribers")
+    public ResponseEntity<Map<String, Object>> getSubscribers(@PathVariable String taskId) {
+        return ResponseEntity.ok(Map.of(
+            "taskId", taskId,
+            "subscribers", taskService.getSubscriberCount(taskId)
+        ));
+    }
+
     private String extractText(JsonNode params) {
         if (!params.has("message")) {
             return "";
@@ -1,16 +1,29 @@
 package com.example.a2a.jsonrpc;
 
+import com.example.a2a.model.IllegalTaskStateException;
 import com.example.a2a.model.Task;
+import com.example.a2a.model.TaskPage;
+import com.example.a2a.model.TaskWithHistory;
+import com.example.a2a.model.TextMessage;
+import com.example.a2a.service.TaskQuery;
+import com.example.a2a.service.TaskInProgressException;
 import com.example.a2a.service.TaskService;
 import com.example.a2a.service.WeatherService;
-import com.fasterxml.jackson.databind.JsonNode;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.HexFormat;
 
 @Service
 public class A2aJsonRpcService {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+
     private final TaskService taskService;
     private final WeatherService weatherService;
 
@@ -19,70 +32,117 @@ public class A2aJsonRpcService {
         this.weatherService = weatherService;
     }
 
-    @JsonRpcMethod("message/send")
+    @JsonRpcMethod(value = "message/send", group = "send")
     public Task sendMessage(
             @JsonRpcParam("id") String id,
-            @JsonRpcParam("message") JsonNode message) {
+            @JsonRpcParam("message") TextMessage message) {
         return doSendMessage(id, message);
     }
 
-    @JsonRpcMethod("tasks/send")
+    @JsonRpcMethod(value = "tasks/send", group = "send")
     public Task tasksSend(
             @JsonRpcParam("id") String id,
-            @JsonRpcParam("message") JsonNode message) {
+            @JsonRpcParam("message") TextMessage message) {
         return doSendMessage(id, message);
     }
 
-    private Task doSendMessage(String id, JsonNode message) {
-        String text = extractText(message);
-        
-        Task task = taskService.createTask(id);
-        taskService.setTaskWorking(id);
-        
-        String response = weatherService.processMessage(text).getContent();
-        taskService.completeTask(id, response);
-        
-        return taskService.getTask(id);
+    /**
+     * Idempotent per task id: a retry carrying the same message gets the stored task
+     * instead of a second computation. A different message for a task id that is still
+     * being processed is refused rather than run next to it.
+     */
+    private Task doSendMessage(String id, TextMessage message) {
+        String text = message != null ? message.getText() : "";
+        String role = message != null ? message.getRole() : null;
+
+        try {
+            return taskService.submitOnce(id, fingerprint(role, text), () -> {
+                taskService.createTask(id);
+                taskService.setTaskWorking(id);
+
+                String response = weatherService.processMessage(text).getContent();
+                return taskService.completeTask(id, response);
+            });
+        } catch (TaskInProgressException e) {
+            throw new TaskException(-32002, "Task is still processing another message: " + id);
+        }
     }
 
-    @JsonRpcMethod("tasks/get")
-    public Task getTask(@JsonRpcParam("id") String id) {
-        Task task = taskService.getTask(id);
-        if (task == null) {
-            throw new TaskException(-32000, "Task not found: " + id);
+    private static String fingerprint(String role, String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            if (role != null) {
+                digest.update(role.getBytes(StandardCharsets.UTF_8));
+            }
+            digest.update((byte) 0);
+            digest.update(text.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
         }
-        return task;
     }
 
-    @JsonRpcMethod("tasks/cancel")
-    public Task cancelTask(@JsonRpcParam("id") String id) {
+    /**
+     * With {@code includeHistory} the task comes back with its state transitions.
+     */
+    @JsonRpcMethod(value = "tasks/get", group = "query")
+    public Object getTask(
+            @JsonRpcParam("id") String id,
+            @JsonRpcParam("includeHistory") boolean includeHistory) {
         Task task = taskService.getTask(id);
         if (task == null) {
             throw new TaskException(-32000, "Task not found: " + id);
         }
-        
-        if (task.getState() == Task.TaskState.COMPLETED || task.getState() == Task.TaskState.CANCELED) {
-            throw new TaskException(-32001, "Task cannot be canceled in state: " + task.getState());
+        return includeHistory ? new TaskWithHistory(task) : task;
+    }
+
+    /**
+     * Page through the stored tasks, optionally filtered by state and by ISO-8601
+     * created/updated time ranges ({@code from} inclusive, {@code to} exclusive).
+     */
+    @JsonRpcMethod(value = "tasks/list", group = "query")
+    public TaskPage listTasks(
+            @JsonRpcParam("state") String state,
+            @JsonRpcParam("createdFrom") String createdFrom,
+            @JsonRpcParam("createdTo") String createdTo,
+            @JsonRpcParam("updatedFrom") String updatedFrom,
+            @JsonRpcParam("updatedTo") String updatedTo,
+            @JsonRpcParam("limit") Integer limit,
+            @JsonRpcParam("cursor") String cursor) {
+        int pageSize = limit != null ? limit : DEFAULT_PAGE_SIZE;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new TaskException(-32602, "Invalid params: limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        try {
+            TaskQuery query = new TaskQuery(parseState(state),
+                    parseInstant(createdFrom), parseInstant(createdTo),
+                    parseInstant(updatedFrom), parseInstant(updatedTo),
+                    pageSize, cursor);
+            return taskService.listTasks(query);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new TaskException(-32602, "Invalid params: " + e.getMessage());
         }
-        
-        taskService.cancelTask(id);
-        return taskService.getTask(id);
     }
 
-    private String extractText(JsonNode message) {
-        if (message == null || !message.has("parts")) {
-            return "";
+    private static Task.TaskState parseState(String state) {
+        return state != null ? Task.TaskState.valueOf(state.toUpperCase()) : null;
+    }
+
+    private static Instant parseInstant(String instant) {
+        return instant != null ? Instant.parse(instant) : null;
+    }
+
+    @JsonRpcMethod(value = "tasks/cancel", group = "cancel")
+    public Task cancelTask(@JsonRpcParam("id") String id) {
+        Task task;
+        try {
+            task = taskService.cancelTask(id);
+        } catch (IllegalTaskStateException e) {
+            throw new TaskException(-32001, "Task cannot be canceled in state: " + e.getState());
         }
-        
-        StringBuilder text = new StringBuilder();
-        JsonNode parts = message.get("parts");
-        if (parts.isArray()) {
-            for (JsonNode part : parts) {
-                if ("text".equals(part.path("type").asText()) || "text".equals(part.path("kind").asText())) {
-                    text.append(part.path("text").asText());
-                }
-            }
+        if (task == null) {
+            throw new TaskException(-32000, "Task not found: " + id);
         }
-        return text.toString();
+        return task;
     }
 }
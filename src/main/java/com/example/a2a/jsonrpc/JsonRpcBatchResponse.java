@@ -0,0 +1,17 @@
+package com.example.a2a.jsonrpc;
+
+import java.util.List;
+
+/**
+ * Responses to a JSON-RPC batch, in request order.
+ */
+public final class JsonRpcBatchResponse {
+
+    private final List<JsonRpcResponse> responses;
+
+    public JsonRpcBatchResponse(List<JsonRpcResponse> responses) {
+        this.responses = responses;
+    }
+
+    public List<JsonRpcResponse> getResponses() { return responses; }
+}
@@ -0,0 +1,76 @@
+package com.example.a2a.jsonrpc;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit for one {@link JsonRpcMethod#group() isolation group}.
+ *
+ * <p>Up to {@code maxConcurrent} calls run at once on their caller's thread. Beyond
+ * that, up to {@code queueCapacity} callers wait at most {@code maxWaitMs} for a slot;
+ * everyone else is turned away at once, so a saturated group fails fast instead of
+ * holding container threads that other groups need.
+ */
+public class JsonRpcBulkhead {
+
+    /** Server error code returned when a group has no free slot. */
+    public static final int OVERLOADED = -32030;
+
+    private final String name;
+    private final int maxConcurrent;
+    private final int queueCapacity;
+    private final long maxWaitMs;
+    private final Semaphore permits;
+    private final AtomicInteger queued = new AtomicInteger();
+
+    public JsonRpcBulkhead(String name, int maxConcurrent, int queueCapacity, long maxWaitMs) {
+        if (maxConcurrent < 1 || queueCapacity < 0) {
+            throw new IllegalArgumentException("Bulkhead " + name + " needs maxConcurrent >= 1 and queueCapacity >= 0");
+        }
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.queueCapacity = queueCapacity;
+        this.maxWaitMs = maxWaitMs;
+        this.permits = new Semaphore(maxConcurrent, true);
+    }
+
+    /**
+     * Take a slot, waiting in the queue if there is room in it.
+     *
+     * @return {@code true} if a slot was taken and must be given back with {@link #exit()}
+     */
+    public boolean tryEnter() {
+        if (permits.tryAcquire()) {
+            return true;
+        }
+        if (queued.incrementAndGet() > queueCapacity) {
+            queued.decrementAndGet();
+            return false;
+        }
+        try {
+            return permits.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            queued.decrementAndGet();
+        }
+    }
+
+    public void exit() {
+        permits.release();
+    }
+
+    public String getName() { return name; }
+
+    /**
+     * @return calls currently holding a slot
+     */
+    public int getActive() { return maxConcurrent - permits.availablePermits(); }
+
+    /**
+     * @return callers currently waiting for a slot
+     */
+    public int getQueued() { return queued.get(); }
+}
@@ -0,0 +1,50 @@
+package com.example.a2a.jsonrpc;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The {@link JsonRpcBulkhead} of every isolation group. Groups without their own
+ * limits get the default ones on first use. Each group publishes
+ * {@code jsonrpc.bulkhead.active} and {@code jsonrpc.bulkhead.queued} gauges
+ * tagged {@code group=<name>}.
+ */
+public class JsonRpcBulkheads {
+
+    private final Limits defaults;
+    private final Map<String, Limits> groupLimits;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentHashMap<String, JsonRpcBulkhead> bulkheads = new ConcurrentHashMap<>();
+
+    public JsonRpcBulkheads(Limits defaults, Map<String, Limits> groupLimits, MeterRegistry meterRegistry) {
+        this.defaults = defaults;
+        this.groupLimits = Map.copyOf(groupLimits);
+        this.meterRegistry = meterRegistry;
+        this.groupLimits.keySet().forEach(this::forGroup);
+    }
+
+    public JsonRpcBulkhead forGroup(String group) {
+        return bulkheads.computeIfAbsent(group, this::create);
+    }
+
+    private JsonRpcBulkhead create(String group) {
+        Limits limits = groupLimits.getOrDefault(group, defaults);
+        JsonRpcBulkhead bulkhead = new JsonRpcBulkhead(group,
+                limits.maxConcurrent(), limits.queueCapacity(), limits.maxWaitMs());
+        Gauge.builder("jsonrpc.bulkhead.active", bulkhead, JsonRpcBulkhead::getActive)
+                .tag("group", group)
+                .description("JSON-RPC calls holding a slot in the group")
+                .register(meterRegistry);
+        Gauge.builder("jsonrpc.bulkhead.queued", bulkhead, JsonRpcBulkhead::getQueued)
+                .tag("group", group)
+                .description("JSON-RPC calls waiting for a slot in the group")
+                .register(meterRegistry);
+        return bulkhead;
+    }
+
+    public record Limits(int maxConcurrent, int queueCapacity, long maxWaitMs) {
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.a2a.jsonrpc;
+
+/**
+ * A JSON-RPC method call whose parameters have already been bound.
+ * Instances are produced by {@link JsonRpcInvoker#bind}.
+ */
+@FunctionalInterface
+public interface JsonRpcCall {
+
+    /**
+     * @return the method result, or {@code null} for void methods
+     */
+    Object invoke() throws Exception;
+}
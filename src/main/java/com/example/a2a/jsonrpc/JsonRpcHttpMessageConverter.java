@@ -0,0 +1,57 @@
+package com.example.a2a.jsonrpc;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+
+/**
+ * Streams {@link JsonRpcResponse} and {@link JsonRpcBatchResponse} return values
+ * to the servlet output stream through {@link JsonRpcResponseWriter}, as JSON or
+ * CBOR depending on the negotiated content type.
+ */
+public class JsonRpcHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+    private final JsonRpcMappers mappers;
+    private final JsonRpcResponseWriter responseWriter;
+
+    public JsonRpcHttpMessageConverter(JsonRpcMappers mappers, JsonRpcResponseWriter responseWriter) {
+        super(JsonRpcMappers.SUPPORTED_MEDIA_TYPES.toArray(MediaType[]::new));
+        this.mappers = mappers;
+        this.responseWriter = responseWriter;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return JsonRpcResponse.class == clazz || JsonRpcBatchResponse.class == clazz;
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("JSON-RPC responses are write-only", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Object value, HttpOutputMessage outputMessage) throws IOException {
+        MediaType contentType = outputMessage.getHeaders().getContentType();
+        try (JsonGenerator gen = mappers.forMediaType(contentType).getFactory()
+                .createGenerator(StreamUtils.nonClosing(outputMessage.getBody()), JsonEncoding.UTF8)) {
+            if (value instanceof JsonRpcBatchResponse batch) {
+                responseWriter.write(gen, batch);
+            } else {
+                responseWriter.write(gen, (JsonRpcResponse) value);
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.a2a.jsonrpc;
+
+import com.fasterxml.jackson.core.JsonParser;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Direct-call dispatch table for one JSON-RPC service.
+ * Implementations are generated at build time by
+ * {@link com.example.a2a.jsonrpc.processor.JsonRpcProcessor} from {@link JsonRpcMethod}
+ * and {@link JsonRpcParam} annotations.
+ */
+public interface JsonRpcInvoker {
+
+    /**
+     * @return the JSON-RPC method names this invoker handles
+     */
+    List<String> methodNames();
+
+    /**
+     * @return the {@link JsonRpcMethod#group() isolation group} of {@code methodName}
+     */
+    default String group(String methodName) {
+        return JsonRpcMethod.DEFAULT_GROUP;
+    }
+
+    /**
+     * Bind the {@code params} value of a request to the method registered under
+     * {@code methodName}, reading tokens straight from the parser.
+     *
+     * @param methodName JSON-RPC method name
+     * @param params parser positioned on the first token of {@code params},
+     *               or {@code null} when the request has no params
+     * @return a call ready to be invoked
+     */
+    JsonRpcCall bind(String methodName, JsonParser params) throws IOException, JsonRpcDispatcher.JsonRpcException;
+}
@@ -0,0 +1,44 @@
+package com.example.a2a.jsonrpc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Wire formats accepted and produced by the JSON-RPC endpoint: JSON, and CBOR as
+ * a binary encoding of the same envelope. The CBOR mapper is a copy of the
+ * application mapper, so both formats share modules and features.
+ */
+@Component
+public class JsonRpcMappers {
+
+    public static final List<MediaType> SUPPORTED_MEDIA_TYPES =
+            List.of(MediaType.APPLICATION_JSON, MediaType.APPLICATION_CBOR);
+
+    private final ObjectMapper jsonMapper;
+    private final ObjectMapper cborMapper;
+
+    public JsonRpcMappers(ObjectMapper objectMapper) {
+        this.jsonMapper = objectMapper;
+        this.cborMapper = objectMapper.copyWith(new CBORFactory());
+    }
+
+    /**
+     * @param mediaType request or response content type, may be {@code null}
+     * @return the CBOR mapper for {@code application/cbor}, otherwise the JSON mapper
+     */
+    public ObjectMapper forMediaType(MediaType mediaType) {
+        return MediaType.APPLICATION_CBOR.equalsTypeAndSubtype(mediaType) ? cborMapper : jsonMapper;
+    }
+
+    public ObjectMapper json() {
+        return jsonMapper;
+    }
+
+    public ObjectMapper cbor() {
+        return cborMapper;
+    }
+}
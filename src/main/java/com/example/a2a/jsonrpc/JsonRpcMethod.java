@@ -6,5 +6,14 @@ import java.lang.annotation.*;
 @Retention(RetentionPolicy.RUNTIME)
 @Documented
 public @interface JsonRpcMethod {
+
+    String DEFAULT_GROUP = "default";
+
     String value();
+
+    /**
+     * Isolation group: methods in the same group share one {@link JsonRpcBulkhead},
+     * so a slow group cannot take the capacity of another.
+     */
+    String group() default DEFAULT_GROUP;
 }
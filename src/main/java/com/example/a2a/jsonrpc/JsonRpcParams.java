@@ -0,0 +1,99 @@
+package com.example.a2a.jsonrpc;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.io.IOException;
+
+/**
+ * Typed parameter readers used by generated {@link JsonRpcInvoker}s.
+ * Each reader consumes the value at the parser's current token. {@code null}
+ * and structured values map to {@code null}, or to the type's default value
+ * for primitives.
+ */
+public final class JsonRpcParams {
+
+    private JsonRpcParams() {}
+
+    /**
+     * Check that {@code params} is an object whose fields can be read.
+     * Arrays (positional params) are skipped and bind nothing.
+     */
+    public static boolean enterObject(JsonParser params) throws IOException, JsonRpcDispatcher.JsonRpcException {
+        if (params == null) {
+            return false;
+        }
+        JsonToken token = params.currentToken();
+        if (token == JsonToken.START_OBJECT) {
+            return true;
+        }
+        if (token == JsonToken.START_ARRAY) {
+            params.skipChildren();
+            return false;
+        }
+        if (token == JsonToken.VALUE_NULL) {
+            return false;
+        }
+        throw new JsonRpcDispatcher.JsonRpcException(-32602, "Invalid params: expected an object");
+    }
+
+    public static String asString(JsonParser p) throws IOException {
+        return isScalar(p) ? p.getValueAsString() : null;
+    }
+
+    public static int asInt(JsonParser p) throws IOException {
+        return isScalar(p) ? p.getValueAsInt() : 0;
+    }
+
+    public static Integer asInteger(JsonParser p) throws IOException {
+        return isScalar(p) ? p.getValueAsInt() : null;
+    }
+
+    public static long asLong(JsonParser p) throws IOException {
+        return isScalar(p) ? p.getValueAsLong() : 0L;
+    }
+
+    public static Long asLongObject(JsonParser p) throws IOException {
+        return isScalar(p) ? p.getValueAsLong() : null;
+    }
+
+    public static boolean asBoolean(JsonParser p) throws IOException {
+        return isScalar(p) && p.getValueAsBoolean();
+    }
+
+    public static Boolean asBooleanObject(JsonParser p) throws IOException {
+        return isScalar(p) ? p.getValueAsBoolean() : null;
+    }
+
+    public static double asDouble(JsonParser p) throws IOException {
+        return isScalar(p) ? p.getValueAsDouble() : 0.0;
+    }
+
+    public static Double asDoubleObject(JsonParser p) throws IOException {
+        return isScalar(p) ? p.getValueAsDouble() : null;
+    }
+
+    public static JsonNode asJsonNode(JsonParser p) throws IOException {
+        return p.currentToken() == JsonToken.VALUE_NULL ? null : p.readValueAsTree();
+    }
+
+    /**
+     * Data-bind the current value with the parser's codec.
+     */
+    public static <T> T read(JsonParser p, Class<T> type) throws IOException {
+        if (p.currentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        return p.readValueAs(type);
+    }
+
+    private static boolean isScalar(JsonParser p) throws IOException {
+        JsonToken token = p.currentToken();
+        if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+            p.skipChildren();
+            return false;
+        }
+        return token != JsonToken.VALUE_NULL;
+    }
+}
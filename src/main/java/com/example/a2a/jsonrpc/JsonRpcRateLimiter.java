@@ -0,0 +1,109 @@
+package com.example.a2a.jsonrpc;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Per-client, per-method token buckets for JSON-RPC admission control.
+ *
+ * <p>Each bucket is a single {@link AtomicLong} holding the bucket's theoretical
+ * arrival time (the GCRA form of a token bucket): a call is admitted when it would
+ * not push that time more than {@code burst} intervals past now, and the update is a
+ * CAS, so no locks are taken. A bucket whose arrival time lies further in the past
+ * than the idle TTL is full and is dropped by a sweep that runs on the calling thread
+ * at most once per TTL.
+ *
+ * <p>Methods the server does not serve all share one bucket per client under
+ * {@link #OTHER_METHODS}, so made-up method names cannot each open a fresh bucket.
+ *
+ * <p>The starter carries the same class for its own controller. The starter is released
+ * on its own and neither project depends on the other, so a change to one copy has to
+ * be made to both.
+ */
+public class JsonRpcRateLimiter {
+
+    /** Server error code returned to clients over their limit. */
+    public static final int RATE_LIMITED = -32029;
+
+    /** Bucket key for every method that is not registered. */
+    public static final String OTHER_METHODS = "*";
+
+    private final Rate defaultRate;
+    private final Map<String, Rate> methodRates;
+    private final Predicate<String> registered;
+    private final long idleTtlNanos;
+    private final ConcurrentHashMap<Key, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong lastSweep;
+
+    public JsonRpcRateLimiter(Rate defaultRate, Map<String, Rate> methodRates, Predicate<String> registered,
+                              long idleTtlMs) {
+        this.defaultRate = defaultRate;
+        this.methodRates = Map.copyOf(methodRates);
+        this.registered = registered;
+        this.idleTtlNanos = TimeUnit.MILLISECONDS.toNanos(idleTtlMs);
+        this.lastSweep = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * Take one token from the bucket of {@code client} for {@code method}.
+     *
+     * @return {@code 0} if the call is admitted, otherwise the milliseconds until it would be
+     */
+    public long tryAcquire(String client, String method) {
+        long now = System.nanoTime();
+        sweepIfDue(now);
+
+        if (method == null || !registered.test(method)) {
+            method = OTHER_METHODS;
+        }
+        Rate rate = methodRates.getOrDefault(method, defaultRate);
+        AtomicLong bucket = buckets.computeIfAbsent(new Key(client, method), key -> new AtomicLong(now));
+        long interval = rate.intervalNanos();
+        long tolerance = interval * rate.burst();
+        while (true) {
+            long tat = bucket.get();
+            long next = Math.max(tat, now) + interval;
+            long wait = next - now - tolerance;
+            if (wait > 0) {
+                return Math.max(1, TimeUnit.NANOSECONDS.toMillis(wait));
+            }
+            if (bucket.compareAndSet(tat, next)) {
+                return 0;
+            }
+        }
+    }
+
+    int size() {
+        return buckets.size();
+    }
+
+    private void sweepIfDue(long now) {
+        long last = lastSweep.get();
+        if (now - last < idleTtlNanos || !lastSweep.compareAndSet(last, now)) {
+            return;
+        }
+        buckets.values().removeIf(tat -> now - tat.get() > idleTtlNanos);
+    }
+
+    private record Key(String client, String method) {
+    }
+
+    /**
+     * Sustained calls per second and the number of calls that may arrive back to back.
+     */
+    public record Rate(double permitsPerSecond, int burst) {
+
+        public Rate {
+            if (permitsPerSecond <= 0 || burst < 1) {
+                throw new IllegalArgumentException("Rate needs permitsPerSecond > 0 and burst >= 1");
+            }
+        }
+
+        long intervalNanos() {
+            return (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.a2a.jsonrpc;
+
+/**
+ * A parsed JSON-RPC request: the envelope fields plus either a bound call
+ * or the error that prevented binding.
+ */
+public final class JsonRpcRequest {
+
+    private final String id;
+    private final boolean notification;
+    private final String method;
+    private final JsonRpcCall call;
+    private final JsonRpcDispatcher.JsonRpcException error;
+
+    private JsonRpcRequest(String id, boolean notification, String method, JsonRpcCall call,
+                           JsonRpcDispatcher.JsonRpcException error) {
+        this.id = id;
+        this.notification = notification;
+        this.method = method;
+        this.call = call;
+        this.error = error;
+    }
+
+    static JsonRpcRequest bound(String id, boolean notification, String method, JsonRpcCall call) {
+        return new JsonRpcRequest(id, notification, method, call, null);
+    }
+
+    static JsonRpcRequest failed(String id, boolean notification, String method,
+                                 JsonRpcDispatcher.JsonRpcException error) {
+        return new JsonRpcRequest(id, notification, method, null, error);
+    }
+
+    public String getId() { return id; }
+
+    /**
+     * @return {@code true} if the request has no {@code id} member and expects no response
+     */
+    public boolean isNotification() { return notification; }
+
+    public String getMethod() { return method; }
+    public JsonRpcCall getCall() { return call; }
+    public JsonRpcDispatcher.JsonRpcException getError() { return error; }
+}
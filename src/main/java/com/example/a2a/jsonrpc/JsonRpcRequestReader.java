@@ -0,0 +1,150 @@
+package com.example.a2a.jsonrpc;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Streaming reader for JSON-RPC requests.
+ *
+ * <p>Reads the envelope token by token and binds {@code params} directly into the
+ * target method's call object, so no {@code JsonNode} tree is built for the request.
+ * When {@code params} precedes {@code method} in the document its tokens are buffered
+ * and bound once the method is known.
+ */
+@Component
+public class JsonRpcRequestReader {
+
+    private final JsonRpcDispatcher dispatcher;
+    private final JsonRpcMappers mappers;
+
+    public JsonRpcRequestReader(JsonRpcDispatcher dispatcher, JsonRpcMappers mappers) {
+        this.dispatcher = dispatcher;
+        this.mappers = mappers;
+    }
+
+    /**
+     * Open a parser for a request body in the given format (JSON or CBOR).
+     */
+    public JsonParser open(InputStream body, MediaType contentType) throws IOException {
+        return mappers.forMediaType(contentType).createParser(body);
+    }
+
+    /**
+     * Read one request. The parser must be positioned on the request's first token
+     * and is left on its last token.
+     *
+     * @throws IOException if the document is not well-formed JSON
+     */
+    public JsonRpcRequest read(JsonParser p) throws IOException {
+        if (p.currentToken() != JsonToken.START_OBJECT) {
+            p.skipChildren();
+            return JsonRpcRequest.failed(null, false, null, invalidRequest());
+        }
+
+        JsonStreamContext requestContext = p.getParsingContext();
+        String id = null;
+        boolean hasId = false;
+        String method = null;
+        TokenBuffer deferredParams = null;
+        boolean hasParams = false;
+        JsonRpcCall call = null;
+        JsonRpcDispatcher.JsonRpcException error = null;
+
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            p.nextToken();
+            switch (field) {
+                case "id" -> {
+                    hasId = true;
+                    id = scalarText(p);
+                }
+                case "method" -> method = scalarText(p);
+                case "params" -> {
+                    hasParams = true;
+                    if (method == null) {
+                        deferredParams = new TokenBuffer(p);
+                        deferredParams.copyCurrentStructure(p);
+                    } else {
+                        try {
+                            call = bind(method, p, requestContext);
+                        } catch (JsonRpcDispatcher.JsonRpcException e) {
+                            error = e;
+                        }
+                    }
+                }
+                default -> p.skipChildren();
+            }
+        }
+
+        boolean notification = !hasId;
+        if (method == null) {
+            return JsonRpcRequest.failed(id, false, null, invalidRequest());
+        }
+        if (error != null) {
+            return JsonRpcRequest.failed(id, notification, method, error);
+        }
+        if (call == null) {
+            try {
+                call = hasParams ? bindDeferred(method, deferredParams) : bind(method, null, requestContext);
+            } catch (JsonRpcDispatcher.JsonRpcException e) {
+                return JsonRpcRequest.failed(id, notification, method, e);
+            }
+        }
+        return JsonRpcRequest.bound(id, notification, method, call);
+    }
+
+    private JsonRpcCall bind(String method, JsonParser params, JsonStreamContext requestContext)
+            throws IOException, JsonRpcDispatcher.JsonRpcException {
+        try {
+            return dispatcher.bind(method, params);
+        } catch (JsonRpcDispatcher.JsonRpcException e) {
+            skipToContext(params, requestContext);
+            throw e;
+        } catch (JsonMappingException e) {
+            skipToContext(params, requestContext);
+            throw new JsonRpcDispatcher.JsonRpcException(-32602, "Invalid params: " + e.getOriginalMessage());
+        }
+    }
+
+    private JsonRpcCall bindDeferred(String method, TokenBuffer buffer)
+            throws IOException, JsonRpcDispatcher.JsonRpcException {
+        try (JsonParser params = buffer.asParser()) {
+            params.nextToken();
+            return dispatcher.bind(method, params);
+        } catch (JsonMappingException e) {
+            throw new JsonRpcDispatcher.JsonRpcException(-32602, "Invalid params: " + e.getOriginalMessage());
+        }
+    }
+
+    /**
+     * Advance past whatever part of {@code params} a failed bind left unread.
+     */
+    private void skipToContext(JsonParser p, JsonStreamContext context) throws IOException {
+        if (p == null) {
+            return;
+        }
+        while (p.getParsingContext() != context && p.nextToken() != null) {
+            // consume remaining params tokens
+        }
+    }
+
+    private String scalarText(JsonParser p) throws IOException {
+        if (p.currentToken().isStructStart()) {
+            p.skipChildren();
+            return null;
+        }
+        return p.getValueAsString();
+    }
+
+    private JsonRpcDispatcher.JsonRpcException invalidRequest() {
+        return new JsonRpcDispatcher.JsonRpcException(-32600, "Invalid Request");
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.a2a.jsonrpc;
+
+/**
+ * A JSON-RPC response envelope carrying either a result or an error.
+ * Written straight to the response stream by {@link JsonRpcResponseWriter}.
+ */
+public final class JsonRpcResponse {
+
+    public static final String JSONRPC_VERSION = "2.0";
+
+    private final String id;
+    private final Object result;
+    private final Error error;
+
+    private JsonRpcResponse(String id, Object result, Error error) {
+        this.id = id;
+        this.result = result;
+        this.error = error;
+    }
+
+    public static JsonRpcResponse success(String id, Object result) {
+        return new JsonRpcResponse(id, result, null);
+    }
+
+    public static JsonRpcResponse error(String id, int code, String message) {
+        return new JsonRpcResponse(id, null, new Error(code, message, null));
+    }
+
+    public static JsonRpcResponse error(String id, int code, String message, Object data) {
+        return new JsonRpcResponse(id, null, new Error(code, message, data));
+    }
+
+    public String getId() { return id; }
+    public Object getResult() { return result; }
+    public Error getError() { return error; }
+    public boolean isError() { return error != null; }
+
+    public static final class Error {
+        private final int code;
+        private final String message;
+        private final Object data;
+
+        private Error(int code, String message, Object data) {
+            this.code = code;
+            this.message = message;
+            this.data = data;
+        }
+
+        public int getCode() { return code; }
+        public String getMessage() { return message; }
+        public Object getData() { return data; }
+    }
+}
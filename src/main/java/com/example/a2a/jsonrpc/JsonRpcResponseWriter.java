@@ -0,0 +1,64 @@
+package com.example.a2a.jsonrpc;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Writes JSON-RPC envelopes with a {@link JsonGenerator}: the envelope fields are
+ * emitted directly and the result is serialized in place, with no intermediate tree.
+ * Results go through one {@link ObjectWriter} per result class, created on first use
+ * with its serializer resolved, so a response skips the per-value serializer lookup.
+ * The writers do not depend on the output format and serve JSON and CBOR alike.
+ */
+@Component
+public class JsonRpcResponseWriter {
+
+    private final ObjectWriter resultWriter;
+    private final Map<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+    public JsonRpcResponseWriter(ObjectMapper objectMapper) {
+        this.resultWriter = objectMapper.writer();
+    }
+
+    public void write(JsonGenerator gen, JsonRpcResponse response) throws IOException {
+        gen.writeStartObject();
+        gen.writeStringField("jsonrpc", JsonRpcResponse.JSONRPC_VERSION);
+        gen.writeStringField("id", response.getId());
+        if (response.isError()) {
+            gen.writeObjectFieldStart("error");
+            gen.writeNumberField("code", response.getError().getCode());
+            gen.writeStringField("message", response.getError().getMessage());
+            if (response.getError().getData() != null) {
+                gen.writeFieldName("data");
+                writeValue(gen, response.getError().getData());
+            }
+            gen.writeEndObject();
+        } else {
+            gen.writeFieldName("result");
+            writeValue(gen, response.getResult());
+        }
+        gen.writeEndObject();
+    }
+
+    private void writeValue(JsonGenerator gen, Object value) throws IOException {
+        if (value == null) {
+            resultWriter.writeValue(gen, null);
+            return;
+        }
+        writers.computeIfAbsent(value.getClass(), resultWriter::forType).writeValue(gen, value);
+    }
+
+    public void write(JsonGenerator gen, JsonRpcBatchResponse batch) throws IOException {
+        gen.writeStartArray();
+        for (JsonRpcResponse response : batch.getResponses()) {
+            write(gen, response);
+        }
+        gen.writeEndArray();
+    }
+}
@@ -0,0 +1,342 @@
+package com.example.a2a.jsonrpc.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Generates a direct-call {@code JsonRpcInvoker} for every class that declares
+ * {@code @JsonRpcMethod} methods.
+ *
+ * <p>For {@code FooService} the processor emits {@code FooServiceInvoker} in the same
+ * package: a {@code switch} on the method name that streams the {@code params} object
+ * from a {@code JsonParser} into a typed per-method call object, which then calls the
+ * service method directly, so dispatch needs no reflection at runtime.
+ */
+@SupportedAnnotationTypes(JsonRpcProcessor.METHOD_ANNOTATION)
+public class JsonRpcProcessor extends AbstractProcessor {
+
+    static final String METHOD_ANNOTATION = "com.example.a2a.jsonrpc.JsonRpcMethod";
+    static final String PARAM_ANNOTATION = "com.example.a2a.jsonrpc.JsonRpcParam";
+
+    private static final String RUNTIME_PACKAGE = "com.example.a2a.jsonrpc";
+    private static final String INVOKER_SUFFIX = "Invoker";
+
+    /** Parameter types with a dedicated {@code JsonRpcParams} accessor; others are data-bound. */
+    private static final Map<String, String> ACCESSORS = Map.ofEntries(
+            Map.entry("java.lang.String", "asString"),
+            Map.entry("int", "asInt"),
+            Map.entry("java.lang.Integer", "asInteger"),
+            Map.entry("long", "asLong"),
+            Map.entry("java.lang.Long", "asLongObject"),
+            Map.entry("boolean", "asBoolean"),
+            Map.entry("java.lang.Boolean", "asBooleanObject"),
+            Map.entry("double", "asDouble"),
+            Map.entry("java.lang.Double", "asDoubleObject"),
+            Map.entry("com.fasterxml.jackson.databind.JsonNode", "asJsonNode")
+    );
+
+    private Messager messager;
+    private Filer filer;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        this.messager = processingEnv.getMessager();
+        this.filer = processingEnv.getFiler();
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement methodAnnotation = processingEnv.getElementUtils().getTypeElement(METHOD_ANNOTATION);
+        if (methodAnnotation == null || !annotations.contains(methodAnnotation)) {
+            return false;
+        }
+
+        Map<TypeElement, List<ExecutableElement>> methodsByService = new LinkedHashMap<>();
+        for (Element element : roundEnv.getElementsAnnotatedWith(methodAnnotation)) {
+            if (element.getKind() != ElementKind.METHOD) {
+                continue;
+            }
+            ExecutableElement method = (ExecutableElement) element;
+            if (!isAccessible(method)) {
+                continue;
+            }
+            methodsByService
+                    .computeIfAbsent((TypeElement) method.getEnclosingElement(), k -> new ArrayList<>())
+                    .add(method);
+        }
+
+        methodsByService.forEach(this::generateInvoker);
+        return true;
+    }
+
+    private boolean isAccessible(ExecutableElement method) {
+        Set<Modifier> modifiers = method.getModifiers();
+        if (modifiers.contains(Modifier.PRIVATE) || modifiers.contains(Modifier.STATIC)) {
+            messager.printMessage(Diagnostic.Kind.ERROR,
+                    "@JsonRpcMethod methods must be non-private instance methods", method);
+            return false;
+        }
+        if (method.getEnclosingElement().getModifiers().contains(Modifier.PRIVATE)) {
+            messager.printMessage(Diagnostic.Kind.ERROR,
+                    "@JsonRpcMethod methods must be declared in a non-private class", method);
+            return false;
+        }
+        return true;
+    }
+
+    private void generateInvoker(TypeElement service, List<ExecutableElement> methods) {
+        String packageName = packageOf(service);
+        String serviceType = service.getQualifiedName().toString();
+        String invokerName = service.getSimpleName() + INVOKER_SUFFIX;
+
+        Map<String, ExecutableElement> byRpcName = new LinkedHashMap<>();
+        for (ExecutableElement method : methods) {
+            String rpcName = annotationValue(method, METHOD_ANNOTATION, "value");
+            if (byRpcName.putIfAbsent(rpcName, method) != null) {
+                messager.printMessage(Diagnostic.Kind.ERROR,
+                        "Duplicate @JsonRpcMethod name: " + rpcName, method);
+                return;
+            }
+        }
+
+        Map<String, String> callNames = new LinkedHashMap<>();
+        Set<String> usedNames = new HashSet<>();
+        for (Map.Entry<String, ExecutableElement> entry : byRpcName.entrySet()) {
+            String base = capitalize(entry.getValue().getSimpleName().toString());
+            String name = base;
+            for (int i = 2; !usedNames.add(name); i++) {
+                name = base + i;
+            }
+            callNames.put(entry.getKey(), name);
+        }
+
+        StringBuilder src = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            src.append("package ").append(packageName).append(";\n\n");
+        }
+        src.append("import com.fasterxml.jackson.core.JsonParser;\n");
+        src.append("import com.fasterxml.jackson.core.JsonToken;\n");
+        if (!RUNTIME_PACKAGE.equals(packageName)) {
+            src.append("import ").append(RUNTIME_PACKAGE).append(".JsonRpcCall;\n");
+            src.append("import ").append(RUNTIME_PACKAGE).append(".JsonRpcDispatcher;\n");
+            src.append("import ").append(RUNTIME_PACKAGE).append(".JsonRpcInvoker;\n");
+            src.append("import ").append(RUNTIME_PACKAGE).append(".JsonRpcMethod;\n");
+            src.append("import ").append(RUNTIME_PACKAGE).append(".JsonRpcParams;\n");
+        }
+        src.append("\n");
+        src.append("import javax.annotation.processing.Generated;\n");
+        src.append("import java.io.IOException;\n");
+        src.append("import java.util.List;\n\n");
+        src.append("@Generated(\"").append(JsonRpcProcessor.class.getName()).append("\")\n");
+        src.append("public final class ").append(invokerName).append(" implements JsonRpcInvoker {\n\n");
+
+        src.append("    private static final List<String> METHOD_NAMES = List.of(");
+        boolean first = true;
+        for (String rpcName : byRpcName.keySet()) {
+            src.append(first ? "" : ", ").append(literal(rpcName));
+            first = false;
+        }
+        src.append(");\n\n");
+
+        src.append("    private final ").append(serviceType).append(" service;\n\n");
+        src.append("    public ").append(invokerName).append("(").append(serviceType).append(" service) {\n");
+        src.append("        this.service = service;\n");
+        src.append("    }\n\n");
+
+        src.append("    @Override\n");
+        src.append("    public List<String> methodNames() {\n");
+        src.append("        return METHOD_NAMES;\n");
+        src.append("    }\n\n");
+
+        src.append("    @Override\n");
+        src.append("    public String group(String methodName) {\n");
+        src.append("        switch (methodName) {\n");
+        for (Map.Entry<String, ExecutableElement> entry : byRpcName.entrySet()) {
+            String group = annotationValue(entry.getValue(), METHOD_ANNOTATION, "group");
+            if (group != null) {
+                src.append("            case ").append(literal(entry.getKey())).append(":\n");
+                src.append("                return ").append(literal(group)).append(";\n");
+            }
+        }
+        src.append("            default:\n");
+        src.append("                return JsonRpcMethod.DEFAULT_GROUP;\n");
+        src.append("        }\n");
+        src.append("    }\n\n");
+
+        src.append("    @Override\n");
+        src.append("    public JsonRpcCall bind(String methodName, JsonParser params)\n");
+        src.append("            throws IOException, JsonRpcDispatcher.JsonRpcException {\n");
+        src.append("        switch (methodName) {\n");
+        for (Map.Entry<String, String> entry : callNames.entrySet()) {
+            src.append("            case ").append(literal(entry.getKey())).append(":\n");
+            src.append("                return bind").append(entry.getValue()).append("(params);\n");
+        }
+        src.append("            default:\n");
+        src.append("                throw new JsonRpcDispatcher.JsonRpcException(-32601, \"Method not found: \" + methodName);\n");
+        src.append("        }\n");
+        src.append("    }\n");
+
+        for (Map.Entry<String, ExecutableElement> entry : byRpcName.entrySet()) {
+            if (!appendMethod(src, invokerName, callNames.get(entry.getKey()), entry.getValue())) {
+                return;
+            }
+        }
+        src.append("}\n");
+
+        String qualifiedName = packageName.isEmpty() ? invokerName : packageName + "." + invokerName;
+        try {
+            JavaFileObject file = filer.createSourceFile(qualifiedName, service);
+            try (Writer writer = file.openWriter()) {
+                writer.write(src.toString());
+            }
+        } catch (IOException e) {
+            messager.printMessage(Diagnostic.Kind.ERROR,
+                    "Failed to write " + qualifiedName + ": " + e.getMessage(), service);
+        }
+    }
+
+    /**
+     * Emits {@code bindXxx(JsonParser)}, which streams the {@code params} object into the
+     * typed fields of an {@code XxxCall}, and the {@code XxxCall} class that invokes the
+     * service method with those fields.
+     */
+    private boolean appendMethod(StringBuilder src, String invokerName, String callName, ExecutableElement method) {
+        String callType = callName + "Call";
+        List<String> fields = new ArrayList<>();
+        StringBuilder cases = new StringBuilder();
+
+        for (VariableElement parameter : method.getParameters()) {
+            String field = parameter.getSimpleName().toString();
+            fields.add("        private " + parameter.asType() + " " + field + ";\n");
+
+            String paramName = annotationValue(parameter, PARAM_ANNOTATION, "value");
+            if (paramName == null) {
+                continue;
+            }
+            String reader = readerFor(parameter);
+            if (reader == null) {
+                return false;
+            }
+            cases.append("                    case ").append(literal(paramName)).append(":\n");
+            cases.append("                        call.").append(field).append(" = ").append(reader).append(";\n");
+            cases.append("                        break;\n");
+        }
+
+        src.append("\n");
+        src.append("    private JsonRpcCall bind").append(callName).append("(JsonParser params)\n");
+        src.append("            throws IOException, JsonRpcDispatcher.JsonRpcException {\n");
+        src.append("        ").append(callType).append(" call = new ").append(callType).append("();\n");
+        src.append("        if (JsonRpcParams.enterObject(params)) {\n");
+        src.append("            while (params.nextToken() == JsonToken.FIELD_NAME) {\n");
+        src.append("                String field = params.currentName();\n");
+        src.append("                params.nextToken();\n");
+        src.append("                switch (field) {\n");
+        src.append(cases);
+        src.append("                    default:\n");
+        src.append("                        params.skipChildren();\n");
+        src.append("                }\n");
+        src.append("            }\n");
+        src.append("        }\n");
+        src.append("        return call;\n");
+        src.append("    }\n\n");
+
+        src.append("    private final class ").append(callType).append(" implements JsonRpcCall {\n");
+        fields.forEach(src::append);
+        if (!fields.isEmpty()) {
+            src.append("\n");
+        }
+        String args = method.getParameters().stream()
+                .map(parameter -> parameter.getSimpleName().toString())
+                .collect(Collectors.joining(", "));
+        String call = invokerName + ".this.service." + method.getSimpleName() + "(" + args + ")";
+        src.append("        @Override\n");
+        src.append("        public Object invoke() throws Exception {\n");
+        if (method.getReturnType().getKind() == TypeKind.VOID) {
+            src.append("            ").append(call).append(";\n");
+            src.append("            return null;\n");
+        } else {
+            src.append("            return ").append(call).append(";\n");
+        }
+        src.append("        }\n");
+        src.append("    }\n");
+        return true;
+    }
+
+    private String readerFor(VariableElement parameter) {
+        TypeMirror type = parameter.asType();
+        String accessor = ACCESSORS.get(typeName(type));
+        if (accessor != null) {
+            return "JsonRpcParams." + accessor + "(params)";
+        }
+        if (type.getKind() == TypeKind.DECLARED || type.getKind() == TypeKind.ARRAY) {
+            return "JsonRpcParams.read(params, " + typeName(type) + ".class)";
+        }
+        messager.printMessage(Diagnostic.Kind.ERROR,
+                "Unsupported @JsonRpcParam type: " + type, parameter);
+        return null;
+    }
+
+    /**
+     * @return the explicitly set {@code attribute} of the annotation, or {@code null} when it is defaulted
+     */
+    private String annotationValue(Element element, String annotationType, String attribute) {
+        return element.getAnnotationMirrors().stream()
+                .filter(mirror -> mirror.getAnnotationType().toString().equals(annotationType))
+                .flatMap(mirror -> mirror.getElementValues().entrySet().stream())
+                .filter(entry -> entry.getKey().getSimpleName().contentEquals(attribute))
+                .map(entry -> (String) entry.getValue().getValue())
+                .findFirst()
+                .orElse(null);
+    }
+
+    private String typeName(TypeMirror type) {
+        return processingEnv.getTypeUtils().erasure(type).toString();
+    }
+
+    private String packageOf(TypeElement type) {
+        Element element = type;
+        while (!(element instanceof PackageElement)) {
+            element = element.getEnclosingElement();
+        }
+        return ((PackageElement) element).getQualifiedName().toString();
+    }
+
+    private static String capitalize(String value) {
+        return Character.toUpperCase(value.charAt(0)) + value.substring(1);
+    }
+
+    private static String literal(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.a2a.model;
+
+/**
+ * Thrown when a task is asked to make a state transition its state machine forbids.
+ */
+public class IllegalTaskStateException extends IllegalStateException {
+    private final String taskId;
+    private final Task.TaskState state;
+    private final Task.TaskState target;
+
+    public IllegalTaskStateException(String taskId, Task.TaskState state, Task.TaskState target) {
+        super("Task " + taskId + " cannot move from " + state + " to " + target);
+        this.taskId = taskId;
+        this.state = state;
+        this.target = target;
+    }
+
+    public String getTaskId() { return taskId; }
+    public Task.TaskState getState() { return state; }
+    public Task.TaskState getTarget() { return target; }
+}
@@ -1,44 +1,181 @@
 package com.example.a2a.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
-public class Task {
+/**
+ * Immutable snapshot of a task. A state change produces a new snapshot with the next
+ * {@link #getVersion() version}; the transition methods enforce the task state machine
+ * and throw {@link IllegalTaskStateException} for a move it does not allow.
+ *
+ * <p>The result and the artifact texts are held as {@link TaskText}, which may live off
+ * the heap; the getters decode them on each call. The {@code resultText} and
+ * {@code textContent} accessors hand out the stored form without decoding.
+ *
+ * <p>The store keeps millions of snapshots, so the layout is compact: the state is a
+ * byte, the timestamps are epoch milliseconds from the {@link TaskClock}, and the
+ * usual result artifact, a single {@value #RESULT_ARTIFACT} artifact with one
+ * {@value #TEXT_PART} part holding the result, is not stored but built on each
+ * {@link #getArtifacts()} call from the result. The history is kept as its packed
+ * entries; {@link #history()} wraps them. The {@code Instant} getters allocate on
+ * each call; hot paths use {@link #createdAtMillis()} and {@link #updatedAtMillis()}.
+ *
+ * <p>Every snapshot carries the task's {@link TaskHistory}; it is left out of the
+ * default JSON form and returned by {@code tasks/get} on request. It counts every
+ * transition, so it doubles as the version counter. Its offsets are measured with
+ * {@link System#nanoTime()} from the task's creation, not derived from the millisecond
+ * timestamps.
+ */
+public final class Task {
+
+    public static final String RESULT_ARTIFACT = "response";
+    public static final String TEXT_PART = "text";
+
+    private static final TaskState[] STATES = TaskState.values();
+    private static final Status[] STATUSES = new Status[STATES.length];
+    /** Marks the artifacts as the result artifact, derived on read; its own instance, unlike {@code List.of()}. */
+    private static final List<Artifact> RESULT_ONLY = Collections.unmodifiableList(new ArrayList<>(0));
+
+    static {
+        for (TaskState state : STATES) {
+            STATUSES[state.ordinal()] = new Status(state.name().toLowerCase());
+        }
+    }
+
     private final String id;
-    private TaskState state;
-    private String result;
-    private final Instant createdAt;
-    private Instant updatedAt;
-    private List<Artifact> artifacts;
+    private final TaskText result;
+    private final List<Artifact> artifacts;
+    private final long[] history;
+    private final long createdAt;
+    private final long updatedAt;
+    private final byte state;
 
     public Task(String id) {
+        this(id, TaskState.SUBMITTED, null, TaskClock.currentTimeMillis(), -1, null, TaskHistory.start(TaskState.SUBMITTED));
+    }
+
+    private Task(String id, TaskState state, TaskText result, long createdAt, long updatedAt,
+                 List<Artifact> artifacts, TaskHistory history) {
         this.id = id;
-        this.state = TaskState.SUBMITTED;
-        this.createdAt = Instant.now();
-        this.updatedAt = Instant.now();
+        this.state = (byte) state.ordinal();
+        this.result = result;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt >= 0 ? updatedAt : createdAt;
+        this.artifacts = compact(result, artifacts);
+        this.history = history.packed();
     }
 
-    public String getId() { return id; }
-    public TaskState getState() { return state; }
-    public void setState(TaskState state) { 
-        this.state = state; 
-        this.updatedAt = Instant.now();
+    /**
+     * Rebuild a snapshot exactly as it was stored, e.g. when recovering the task store.
+     */
+    public static Task restore(String id, TaskState state, String result, List<Artifact> artifacts,
+                               Instant createdAt, Instant updatedAt, long version) {
+        return restore(id, state, TaskText.of(result), artifacts, createdAt, updatedAt, version);
+    }
+
+    public static Task restore(String id, TaskState state, TaskText result, List<Artifact> artifacts,
+                               Instant createdAt, Instant updatedAt, long version) {
+        return restore(id, state, result, artifacts, createdAt, updatedAt, version, null);
     }
-    public String getResult() { return result; }
-    public void setResult(String result) { 
-        this.result = result; 
-        this.updatedAt = Instant.now();
+
+    /**
+     * @param history the stored timeline, or {@code null} to derive one from the timestamps;
+     *                either way it is made to count {@code version + 1} transitions
+     */
+    public static Task restore(String id, TaskState state, TaskText result, List<Artifact> artifacts,
+                               Instant createdAt, Instant updatedAt, long version, TaskHistory history) {
+        long created = createdAt.toEpochMilli();
+        long updated = updatedAt != null ? updatedAt.toEpochMilli() : created;
+        if (history == null) {
+            history = TaskHistory.approximate(state, created, updated);
+        }
+        return new Task(id, state, result, created, updated, artifacts, history.recordedAs(version + 1));
     }
-    public Instant getCreatedAt() { return createdAt; }
-    public Instant getUpdatedAt() { return updatedAt; }
-    public List<Artifact> getArtifacts() { return artifacts; }
-    public void setArtifacts(List<Artifact> artifacts) { 
-        this.artifacts = artifacts;
-        this.updatedAt = Instant.now();
+
+    /**
+     * Drop the artifacts to the {@link #RESULT_ONLY} marker when they are just the result.
+     */
+    private static List<Artifact> compact(TaskText result, List<Artifact> artifacts) {
+        if (artifacts == null || artifacts == RESULT_ONLY) {
+            return artifacts;
+        }
+        if (result != null && artifacts.size() == 1) {
+            Artifact artifact = artifacts.get(0);
+            if (RESULT_ARTIFACT.equals(artifact.getName()) && artifact.getParts().size() == 1) {
+                Part part = artifact.getParts().get(0);
+                if (TEXT_PART.equals(part.getType()) && part.textContent() == result) {
+                    return RESULT_ONLY;
+                }
+            }
+        }
+        return List.copyOf(artifacts);
+    }
+
+    public String getId() { return id; }
+    public TaskState getState() { return STATES[state]; }
+    public String getResult() { return result != null ? result.get() : null; }
+    public TaskText resultText() { return result; }
+    public Instant getCreatedAt() { return Instant.ofEpochMilli(createdAt); }
+    public Instant getUpdatedAt() { return Instant.ofEpochMilli(updatedAt); }
+    public long createdAtMillis() { return createdAt; }
+    public long updatedAtMillis() { return updatedAt; }
+    @JsonIgnore
+    public long getVersion() { return history().recorded() - 1; }
+    public TaskHistory history() { return TaskHistory.wrap(history); }
+
+    public List<Artifact> getArtifacts() {
+        if (artifacts != RESULT_ONLY) {
+            return artifacts;
+        }
+        return List.of(new Artifact(RESULT_ARTIFACT, List.of(new Part(TEXT_PART, result))));
+    }
+
+    /**
+     * @return whether {@link #getArtifacts()} is built from the result rather than stored
+     */
+    public boolean artifactsDerived() {
+        return artifacts == RESULT_ONLY;
     }
 
     public Status getStatus() {
-        return new Status(state.name().toLowerCase());
+        return STATUSES[state];
+    }
+
+    public Task working() {
+        return transitionTo(TaskState.WORKING, result, artifacts);
+    }
+
+    public Task completed(String result, List<Artifact> artifacts) {
+        return completed(TaskText.of(result), artifacts);
+    }
+
+    public Task completed(TaskText result, List<Artifact> artifacts) {
+        return transitionTo(TaskState.COMPLETED, result, artifacts);
+    }
+
+    /**
+     * Complete with {@code result} as the task's only artifact.
+     */
+    public Task completed(TaskText result) {
+        return transitionTo(TaskState.COMPLETED, result, result != null ? RESULT_ONLY : null);
+    }
+
+    public Task canceled() {
+        return transitionTo(TaskState.CANCELED, result, artifacts);
+    }
+
+    private Task transitionTo(TaskState next, TaskText result, List<Artifact> artifacts) {
+        TaskState current = getState();
+        if (!current.canTransitionTo(next)) {
+            throw new IllegalTaskStateException(id, current, next);
+        }
+        long now = Math.max(TaskClock.currentTimeMillis(), updatedAt);
+        TaskHistory nextHistory = history().append(next, TaskClock.nanosSince(createdAt));
+        return new Task(id, next, result, createdAt, now, artifacts, nextHistory);
     }
 
     public static class Status {
@@ -52,7 +189,19 @@ public class Task {
     }
 
     public enum TaskState {
-        SUBMITTED, WORKING, INPUT_REQUIRED, COMPLETED, CANCELED
+        SUBMITTED, WORKING, INPUT_REQUIRED, COMPLETED, CANCELED;
+
+        public boolean isTerminal() {
+            return this == COMPLETED || this == CANCELED;
+        }
+
+        /**
+         * Any live state may move to any other state except back to {@link #SUBMITTED};
+         * a terminal state is final.
+         */
+        public boolean canTransitionTo(TaskState next) {
+            return !isTerminal() && next != SUBMITTED;
+        }
     }
 
     public static class Artifact {
@@ -61,7 +210,7 @@ public class Task {
 
         public Artifact(String name, List<Part> parts) {
             this.name = name;
-            this.parts = parts;
+            this.parts = List.copyOf(parts);
         }
 
         public String getName() { return name; }
@@ -70,14 +219,19 @@ public class Task {
 
     public static class Part {
         private final String type;
-        private final String text;
+        private final TaskText text;
 
         public Part(String type, String text) {
+            this(type, TaskText.of(text));
+        }
+
+        public Part(String type, TaskText text) {
             this.type = type;
             this.text = text;
         }
 
         public String getType() { return type; }
-        public String getText() { return text; }
+        public String getText() { return text != null ? text.get() : null; }
+        public TaskText textContent() { return text; }
     }
 }
@@ -0,0 +1,31 @@
+package com.example.a2a.model;
+
+/**
+ * The clock that stamps tasks: {@link System#nanoTime()} read against one wall-clock
+ * reading taken when the class loads. A stamp costs a clock read and no allocation, the
+ * millisecond timestamps and the nanosecond history offsets of a task come from the same
+ * clock and so agree, and stamps never go backwards. Like any monotonic clock it does
+ * not follow steps of the system clock made after startup.
+ */
+final class TaskClock {
+
+    private static final long ANCHOR_NANOS = System.nanoTime();
+    private static final long ANCHOR_EPOCH_NANOS = System.currentTimeMillis() * 1_000_000L;
+
+    private TaskClock() {}
+
+    static long currentTimeMillis() {
+        return Math.floorDiv(epochNanos(), 1_000_000L);
+    }
+
+    /**
+     * @return nanoseconds from {@code epochMillis} to now, negative for a future instant
+     */
+    static long nanosSince(long epochMillis) {
+        return epochNanos() - epochMillis * 1_000_000L;
+    }
+
+    private static long epochNanos() {
+        return ANCHOR_EPOCH_NANOS + (System.nanoTime() - ANCHOR_NANOS);
+    }
+}
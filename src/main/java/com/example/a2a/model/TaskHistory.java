@@ -0,0 +1,183 @@
+package com.example.a2a.model;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Timeline of the states a task went through, kept as one {@code long[]}.
+ *
+ * <p>Each entry packs the state's ordinal as a byte in the top eight bits and the
+ * nanoseconds since the task was created in the remaining 56 bits (about two years),
+ * so a transition costs eight bytes and no object of its own. A history is immutable:
+ * {@link #append} copies the array, which stays cheap because a task moves only a few
+ * times. Past {@link #CAPACITY} entries the oldest are dropped, like a ring buffer;
+ * {@link #dropped()} says how many.
+ *
+ * <p>The history counts every transition it was given, kept or dropped, which makes it
+ * the task's version counter too: {@link #recorded()} is the version plus one. While
+ * nothing was dropped the count is the array's length; otherwise a leading marker entry
+ * holds the number of dropped entries.
+ */
+public final class TaskHistory {
+
+    public static final int CAPACITY = 32;
+
+    private static final int STATE_SHIFT = 56;
+    private static final long OFFSET_MASK = (1L << STATE_SHIFT) - 1;
+    private static final long DROPPED_MARKER = 0xFFL << STATE_SHIFT;
+    private static final Task.TaskState[] STATES = Task.TaskState.values();
+
+    /** The optional dropped marker, then the kept entries. */
+    private final long[] packed;
+    private final int first;
+
+    private TaskHistory(long[] packed) {
+        this.packed = packed;
+        this.first = packed.length > 1 && (packed[0] & ~OFFSET_MASK) == DROPPED_MARKER ? 1 : 0;
+    }
+
+    static TaskHistory start(Task.TaskState state) {
+        return new TaskHistory(new long[]{pack(state, 0)});
+    }
+
+    /**
+     * A best-effort history for a snapshot stored without one: created in
+     * {@link Task.TaskState#SUBMITTED}, then its current state as of {@code updatedAt}.
+     */
+    static TaskHistory approximate(Task.TaskState state, long createdAt, long updatedAt) {
+        TaskHistory history = start(Task.TaskState.SUBMITTED);
+        return state == Task.TaskState.SUBMITTED ? history : history.append(state, nanosBetween(createdAt, updatedAt));
+    }
+
+    /**
+     * Share {@code packed} without copying; for {@link Task}, which stores it.
+     */
+    static TaskHistory wrap(long[] packed) {
+        return new TaskHistory(packed);
+    }
+
+    /**
+     * Rebuild a history from the packed form returned by {@link #entries()}.
+     */
+    public static TaskHistory of(long[] entries, int dropped) {
+        if (entries.length == 0 || entries.length > CAPACITY || dropped < 0) {
+            throw new IllegalArgumentException("A task history holds 1 to " + CAPACITY + " entries");
+        }
+        return new TaskHistory(pack(entries, 0, entries.length, dropped));
+    }
+
+    /**
+     * This history counting {@code recorded} transitions: missing ones count as
+     * dropped, and if it holds more entries than that, only the latest are kept.
+     */
+    TaskHistory recordedAs(long recorded) {
+        long count = Math.max(recorded, 1);
+        int size = size();
+        if (count == recorded()) {
+            return this;
+        }
+        if (count < size) {
+            return new TaskHistory(pack(packed, packed.length - (int) count, packed.length, 0));
+        }
+        return new TaskHistory(pack(packed, first, packed.length, count - size));
+    }
+
+    /**
+     * Add an entry; an offset before the latest entry's, e.g. from a task restored with
+     * a re-anchored clock, is moved up to it so the timeline stays ordered.
+     */
+    TaskHistory append(Task.TaskState state, long offsetNanos) {
+        int size = size();
+        int keep = Math.min(size, CAPACITY - 1);
+        long dropped = droppedCount() + size - keep;
+        long[] next = pack(packed, packed.length - keep, packed.length + 1, dropped);
+        long offset = Math.min(Math.max(offsetNanos, offsetNanos(size - 1)), OFFSET_MASK);
+        next[next.length - 1] = pack(state, offset);
+        return new TaskHistory(next);
+    }
+
+    public int size() {
+        return packed.length - first;
+    }
+
+    /**
+     * @return how many of the oldest entries no longer fit
+     */
+    public int dropped() {
+        return (int) Math.min(droppedCount(), Integer.MAX_VALUE);
+    }
+
+    /**
+     * @return how many transitions were recorded, the kept and the dropped ones
+     */
+    public long recorded() {
+        return size() + droppedCount();
+    }
+
+    public Task.TaskState state(int index) {
+        return STATES[(int) (packed[first + index] >>> STATE_SHIFT)];
+    }
+
+    /**
+     * @return nanoseconds from the task's creation to entering {@link #state(int)}
+     */
+    public long offsetNanos(int index) {
+        return packed[first + index] & OFFSET_MASK;
+    }
+
+    /**
+     * @return a copy of the packed entries, oldest first
+     */
+    public long[] entries() {
+        return Arrays.copyOfRange(packed, first, packed.length);
+    }
+
+    long[] packed() {
+        return packed;
+    }
+
+    /**
+     * Expand the entries into one {@link Transition} each, e.g. for a response.
+     */
+    public List<Transition> transitions(Instant createdAt) {
+        int size = size();
+        List<Transition> transitions = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            long offset = offsetNanos(i);
+            transitions.add(new Transition(state(i).name().toLowerCase(), createdAt.plusNanos(offset), offset));
+        }
+        return transitions;
+    }
+
+    static long nanosBetween(long fromMillis, long toMillis) {
+        long nanos = (toMillis - fromMillis) * 1_000_000L;
+        return Math.min(Math.max(nanos, 0), OFFSET_MASK);
+    }
+
+    private long droppedCount() {
+        return first == 1 ? packed[0] & OFFSET_MASK : 0;
+    }
+
+    /**
+     * Copy {@code source[from, to)} behind a dropped marker if {@code dropped} is
+     * positive; positions past the source's end are left for the caller to fill.
+     */
+    private static long[] pack(long[] source, int from, int to, long dropped) {
+        int marker = dropped > 0 ? 1 : 0;
+        long[] packed = new long[marker + to - from];
+        System.arraycopy(source, from, packed, marker, Math.min(to, source.length) - from);
+        if (marker == 1) {
+            packed[0] = DROPPED_MARKER | Math.min(dropped, OFFSET_MASK);
+        }
+        return packed;
+    }
+
+    private static long pack(Task.TaskState state, long offsetNanos) {
+        return ((long) state.ordinal() << STATE_SHIFT) | offsetNanos;
+    }
+
+    public record Transition(String state, Instant timestamp, long elapsedNanos) {
+    }
+}
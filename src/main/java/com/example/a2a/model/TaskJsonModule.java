@@ -0,0 +1,271 @@
+package com.example.a2a.model;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.ContextualSerializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.databind.util.NameTransformer;
+import com.fasterxml.jackson.datatype.jsr310.ser.InstantSerializer;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Hand-written serializers for {@link Task}, {@link Task.Artifact} and {@link Task.Part}.
+ *
+ * <p>They write the same document as bean serialization, with the properties in a fixed
+ * order: {@code id}, {@code state}, {@code result}, {@code createdAt}, {@code updatedAt},
+ * {@code artifacts}, {@code status}. The version stays internal to the store. Field names, state names and status
+ * objects are pre-encoded, nothing is looked up by reflection, and an artifact derived
+ * from the result is written straight from it without building the list.
+ *
+ * <p>Timestamps follow the mapper's own {@link Instant} serializer. That one goes through
+ * a {@code BigDecimal} per value and dominates the cost of a task, so when it is the
+ * stock JavaTimeModule serializer writing numeric timestamps, as decided by
+ * {@link SerializationFeature#WRITE_DATES_AS_TIMESTAMPS} and
+ * {@link SerializationFeature#WRITE_DATE_TIMESTAMPS_AS_NANOSECONDS}, the timestamps are
+ * written directly in the same form. Instants before the epoch, which are rare and
+ * which the serializer writes as floored seconds with a positive fraction, are left to
+ * it. Any other setup, e.g. ISO strings or a format
+ * override for {@link Instant}, keeps using the serializer.
+ */
+public class TaskJsonModule extends SimpleModule {
+
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString STATE = new SerializedString("state");
+    private static final SerializableString RESULT = new SerializedString("result");
+    private static final SerializableString CREATED_AT = new SerializedString("createdAt");
+    private static final SerializableString UPDATED_AT = new SerializedString("updatedAt");
+    private static final SerializableString ARTIFACTS = new SerializedString("artifacts");
+    private static final SerializableString STATUS = new SerializedString("status");
+    private static final SerializableString NAME = new SerializedString("name");
+    private static final SerializableString PARTS = new SerializedString("parts");
+    private static final SerializableString TYPE = new SerializedString("type");
+    private static final SerializableString TEXT = new SerializedString("text");
+    private static final SerializableString RESULT_ARTIFACT = new SerializedString(Task.RESULT_ARTIFACT);
+    private static final SerializableString TEXT_PART = new SerializedString(Task.TEXT_PART);
+
+    private static final SerializableString[] STATE_NAMES;
+    private static final SerializableString[] STATUS_NAMES;
+
+    static {
+        Task.TaskState[] states = Task.TaskState.values();
+        STATE_NAMES = new SerializableString[states.length];
+        STATUS_NAMES = new SerializableString[states.length];
+        for (Task.TaskState state : states) {
+            STATE_NAMES[state.ordinal()] = new SerializedString(state.name());
+            STATUS_NAMES[state.ordinal()] = new SerializedString(state.name().toLowerCase());
+        }
+    }
+
+    public TaskJsonModule() {
+        super("TaskJsonModule");
+        addSerializer(Task.class, new TaskSerializer(null, Timestamps.SERIALIZER, false));
+        addSerializer(Task.Artifact.class, new ArtifactSerializer());
+        addSerializer(Task.Part.class, new PartSerializer());
+    }
+
+    /** How {@link TaskSerializer} writes a timestamp. */
+    enum Timestamps {
+        /** Through the mapper's {@link Instant} serializer. */
+        SERIALIZER,
+        /** Epoch milliseconds as an integer. */
+        MILLIS,
+        /** Epoch seconds with nine decimals, e.g. {@code 1700000000.123000000}, and {@code 0.0} for the epoch. */
+        DECIMAL_SECONDS;
+
+        /**
+         * What {@code serializer} writes, read from the same settings it reads: only the
+         * stock {@link InstantSerializer} with no format configured for {@link Instant} is
+         * written directly.
+         */
+        static Timestamps of(JsonSerializer<Object> serializer, SerializerProvider provider) {
+            if (serializer.getClass() != InstantSerializer.class
+                    || !JsonFormat.Value.empty().equals(provider.getDefaultPropertyFormat(Instant.class))
+                    || !provider.isEnabled(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)) {
+                return SERIALIZER;
+            }
+            return provider.isEnabled(SerializationFeature.WRITE_DATE_TIMESTAMPS_AS_NANOSECONDS)
+                    ? DECIMAL_SECONDS : MILLIS;
+        }
+
+        /**
+         * @param epochMillis an instant at or after the epoch
+         */
+        static String decimalSeconds(long epochMillis) {
+            if (epochMillis == 0) {
+                return "0.0";
+            }
+            long millis = epochMillis % 1000;
+            return (epochMillis / 1000) + (millis < 10 ? ".00" : millis < 100 ? ".0" : ".") + millis + "000000";
+        }
+    }
+
+    static final class TaskSerializer extends StdSerializer<Task> implements ContextualSerializer {
+
+        private final JsonSerializer<Object> instantSerializer;
+        private final Timestamps timestamps;
+        private final boolean unwrapping;
+
+        TaskSerializer(JsonSerializer<Object> instantSerializer, Timestamps timestamps, boolean unwrapping) {
+            super(Task.class);
+            this.instantSerializer = instantSerializer;
+            this.timestamps = timestamps;
+            this.unwrapping = unwrapping;
+        }
+
+        @Override
+        public JsonSerializer<?> createContextual(SerializerProvider provider, BeanProperty property)
+                throws JsonMappingException {
+            JsonSerializer<Object> instants = provider.findValueSerializer(Instant.class, null);
+            return new TaskSerializer(instants, Timestamps.of(instants, provider), unwrapping);
+        }
+
+        /**
+         * For {@code @JsonUnwrapped}, as in {@link TaskWithHistory}: the fields without
+         * the enclosing object.
+         */
+        @Override
+        public JsonSerializer<Task> unwrappingSerializer(NameTransformer unwrapper) {
+            return new TaskSerializer(instantSerializer, timestamps, true);
+        }
+
+        @Override
+        public boolean isUnwrappingSerializer() {
+            return unwrapping;
+        }
+
+        @Override
+        public void serialize(Task task, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            if (!unwrapping) {
+                gen.writeStartObject(task);
+            }
+            int state = task.getState().ordinal();
+            String result = task.getResult();
+            gen.writeFieldName(ID);
+            gen.writeString(task.getId());
+            gen.writeFieldName(STATE);
+            gen.writeString(STATE_NAMES[state]);
+            gen.writeFieldName(RESULT);
+            gen.writeString(result);
+            gen.writeFieldName(CREATED_AT);
+            writeInstant(task.createdAtMillis(), gen, provider);
+            gen.writeFieldName(UPDATED_AT);
+            writeInstant(task.updatedAtMillis(), gen, provider);
+            gen.writeFieldName(ARTIFACTS);
+            if (task.artifactsDerived()) {
+                gen.writeStartArray(null, 1);
+                writeArtifact(RESULT_ARTIFACT, TEXT_PART, result, gen);
+                gen.writeEndArray();
+            } else {
+                writeArtifacts(task.getArtifacts(), gen);
+            }
+            gen.writeFieldName(STATUS);
+            gen.writeStartObject();
+            gen.writeFieldName(STATE);
+            gen.writeString(STATUS_NAMES[state]);
+            gen.writeEndObject();
+            if (!unwrapping) {
+                gen.writeEndObject();
+            }
+        }
+
+        private void writeInstant(long epochMillis, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            if (timestamps == Timestamps.MILLIS) {
+                gen.writeNumber(epochMillis);
+            } else if (timestamps == Timestamps.DECIMAL_SECONDS && epochMillis >= 0 && gen.canWriteFormattedNumbers()) {
+                // Binary formats such as CBOR keep the serializer's own number encoding
+                gen.writeNumber(Timestamps.decimalSeconds(epochMillis));
+            } else {
+                JsonSerializer<Object> serializer = instantSerializer != null
+                        ? instantSerializer : provider.findValueSerializer(Instant.class, null);
+                serializer.serialize(Instant.ofEpochMilli(epochMillis), gen, provider);
+            }
+        }
+    }
+
+    static final class ArtifactSerializer extends StdSerializer<Task.Artifact> {
+
+        ArtifactSerializer() {
+            super(Task.Artifact.class);
+        }
+
+        @Override
+        public void serialize(Task.Artifact artifact, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            writeArtifact(artifact, gen);
+        }
+    }
+
+    static final class PartSerializer extends StdSerializer<Task.Part> {
+
+        PartSerializer() {
+            super(Task.Part.class);
+        }
+
+        @Override
+        public void serialize(Task.Part part, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            writePart(part.getType(), part.getText(), gen);
+        }
+    }
+
+    private static void writeArtifacts(List<Task.Artifact> artifacts, JsonGenerator gen) throws IOException {
+        if (artifacts == null) {
+            gen.writeNull();
+            return;
+        }
+        gen.writeStartArray(artifacts, artifacts.size());
+        for (Task.Artifact artifact : artifacts) {
+            writeArtifact(artifact, gen);
+        }
+        gen.writeEndArray();
+    }
+
+    private static void writeArtifact(Task.Artifact artifact, JsonGenerator gen) throws IOException {
+        gen.writeStartObject(artifact);
+        gen.writeFieldName(NAME);
+        gen.writeString(artifact.getName());
+        gen.writeFieldName(PARTS);
+        List<Task.Part> parts = artifact.getParts();
+        gen.writeStartArray(parts, parts.size());
+        for (Task.Part part : parts) {
+            writePart(part.getType(), part.getText(), gen);
+        }
+        gen.writeEndArray();
+        gen.writeEndObject();
+    }
+
+    private static void writeArtifact(SerializableString name, SerializableString type, String text,
+                                      JsonGenerator gen) throws IOException {
+        gen.writeStartObject();
+        gen.writeFieldName(NAME);
+        gen.writeString(name);
+        gen.writeFieldName(PARTS);
+        gen.writeStartArray(null, 1);
+        gen.writeStartObject();
+        gen.writeFieldName(TYPE);
+        gen.writeString(type);
+        gen.writeFieldName(TEXT);
+        gen.writeString(text);
+        gen.writeEndObject();
+        gen.writeEndArray();
+        gen.writeEndObject();
+    }
+
+    private static void writePart(String type, String text, JsonGenerator gen) throws IOException {
+        gen.writeStartObject();
+        gen.writeFieldName(TYPE);
+        gen.writeString(type);
+        gen.writeFieldName(TEXT);
+        gen.writeString(text);
+        gen.writeEndObject();
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.a2a.model;
+
+import java.util.List;
+
+/**
+ * One page of a task listing. {@code nextCursor} fetches the page after it and is
+ * {@code null} on the last page.
+ */
+public class TaskPage {
+    private final List<Task> tasks;
+    private final String nextCursor;
+
+    public TaskPage(List<Task> tasks, String nextCursor) {
+        this.tasks = tasks;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Task> getTasks() { return tasks; }
+    public String getNextCursor() { return nextCursor; }
+}
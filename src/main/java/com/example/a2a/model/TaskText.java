@@ -0,0 +1,50 @@
+package com.example.a2a.model;
+
+/**
+ * Text of a task result or artifact part. It may be held outside the Java heap, in
+ * which case it is decoded on every {@link #get()}; callers that need the text
+ * repeatedly should keep the returned string.
+ */
+public interface TaskText {
+
+    String get();
+
+    /**
+     * Bytes held for the text, on or off the heap.
+     */
+    long footprint();
+
+    /**
+     * Give back the storage of the text once no snapshot refers to it any more.
+     */
+    default void release() {
+    }
+
+    static TaskText of(String value) {
+        return value == null ? null : new HeapText(value);
+    }
+
+    /**
+     * Plain on-heap text.
+     */
+    final class HeapText implements TaskText {
+        private static final long STRING_OVERHEAD = 40;
+
+        private final String value;
+
+        private HeapText(String value) {
+            this.value = value;
+        }
+
+        @Override
+        public String get() {
+            return value;
+        }
+
+        @Override
+        public long footprint() {
+            // Strings are counted as UTF-16 so the estimate errs on the high side
+            return STRING_OVERHEAD + 2L * value.length();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.a2a.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+
+import java.util.List;
+
+/**
+ * JSON view of a task with its state transitions, for {@code tasks/get} calls that ask
+ * for the history. The task's own fields are written as usual, followed by
+ * {@code history} and, if older entries no longer fit, {@code historyDropped}.
+ */
+public final class TaskWithHistory {
+
+    @JsonUnwrapped
+    private final Task task;
+
+    public TaskWithHistory(Task task) {
+        this.task = task;
+    }
+
+    public List<TaskHistory.Transition> getHistory() {
+        return task.history().transitions(task.getCreatedAt());
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public Integer getHistoryDropped() {
+        int dropped = task.history().dropped();
+        return dropped > 0 ? dropped : null;
+    }
+}
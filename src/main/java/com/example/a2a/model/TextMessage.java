@@ -0,0 +1,82 @@
+package com.example.a2a.model;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+
+import java.io.IOException;
+
+/**
+ * Incoming A2A message reduced to what the agent consumes: the role and the
+ * concatenated text of its text parts.
+ */
+@JsonDeserialize(using = TextMessage.Deserializer.class)
+public class TextMessage {
+    private final String role;
+    private final String text;
+
+    public TextMessage(String role, String text) {
+        this.role = role;
+        this.text = text;
+    }
+
+    public String getRole() { return role; }
+    public String getText() { return text; }
+
+    /**
+     * Collects text parts while streaming over the message tokens, skipping
+     * every other field without materializing it.
+     */
+    public static class Deserializer extends JsonDeserializer<TextMessage> {
+
+        @Override
+        public TextMessage deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (p.currentToken() != JsonToken.START_OBJECT) {
+                p.skipChildren();
+                return new TextMessage(null, "");
+            }
+
+            String role = null;
+            StringBuilder text = new StringBuilder();
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.currentName();
+                JsonToken value = p.nextToken();
+                if ("role".equals(field) && value.isScalarValue()) {
+                    role = p.getValueAsString();
+                } else if ("parts".equals(field) && value == JsonToken.START_ARRAY) {
+                    while (p.nextToken() != JsonToken.END_ARRAY) {
+                        readPart(p, text);
+                    }
+                } else {
+                    p.skipChildren();
+                }
+            }
+            return new TextMessage(role, text.toString());
+        }
+
+        private void readPart(JsonParser p, StringBuilder text) throws IOException {
+            if (p.currentToken() != JsonToken.START_OBJECT) {
+                p.skipChildren();
+                return;
+            }
+            boolean isText = false;
+            String partText = null;
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.currentName();
+                JsonToken value = p.nextToken();
+                if (("type".equals(field) || "kind".equals(field)) && value.isScalarValue()) {
+                    isText |= "text".equals(p.getValueAsString());
+                } else if ("text".equals(field) && value.isScalarValue()) {
+                    partText = p.getValueAsString();
+                } else {
+                    p.skipChildren();
+                }
+            }
+            if (isText && partText != null) {
+                text.append(partText);
+            }
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package com.example.a2a.service;
+
+import com.example.a2a.model.TaskText;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Task texts kept as UTF-8 in direct-buffer slabs, outside the Java heap.
+ *
+ * <p>Each slab is cut into chunks of one power-of-two size class; a chunk holds a
+ * {@code [generation][length]} header followed by the text. A text larger than a slab
+ * gets a buffer of its own. The heap keeps only a small handle per text, which decodes
+ * on every read.
+ *
+ * <p>A released chunk waits out a grace period before it is reused. The store keeps
+ * only a weak reference to a released handle, so once the grace period is over the
+ * handle is usually gone with its last snapshot. Readers may still hold snapshots of a
+ * task that left the store, queued for a subscriber or waiting in a response, for
+ * however long they take; if the handle is still reachable, reclaiming its chunk first
+ * decodes the text onto the heap, into the handle, and then bumps the generation. A
+ * handle read after that, or while its chunk is being reused, returns the copy instead
+ * of another task's text.
+ *
+ * <p>A slab whose chunks are all free is dropped once its class has another slab with
+ * room. Its memory goes back when the buffer is collected, which is also when the
+ * reserved gauge drops.
+ */
+public class OffHeapTextStore {
+
+    private static final int HEADER_BYTES = 8;
+    private static final int MIN_CHUNK_BYTES = 64;
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+
+    private final int slabBytes;
+    private final long graceNanos;
+    private final SizeClass[] classes;
+    private final Queue<Released> released = new ConcurrentLinkedQueue<>();
+    /** Slabs not yet collected, each tracked until its buffer is gone. */
+    private final Set<SlabReference> slabs = ConcurrentHashMap.newKeySet();
+    private final ReferenceQueue<Slab> collected = new ReferenceQueue<>();
+    private final AtomicLong reservedBytes = new AtomicLong();
+    private final AtomicLong usedBytes = new AtomicLong();
+
+    public OffHeapTextStore(int slabBytes, long graceMs, MeterRegistry meterRegistry) {
+        if (slabBytes < MIN_CHUNK_BYTES) {
+            throw new IllegalArgumentException("Slabs need at least " + MIN_CHUNK_BYTES + " bytes");
+        }
+        this.slabBytes = slabBytes;
+        this.graceNanos = TimeUnit.MILLISECONDS.toNanos(graceMs);
+        int count = 0;
+        for (int size = MIN_CHUNK_BYTES; size > 0 && size <= slabBytes; size <<= 1) {
+            count++;
+        }
+        classes = new SizeClass[count];
+        for (int i = 0; i < count; i++) {
+            classes[i] = new SizeClass(MIN_CHUNK_BYTES << i);
+        }
+        Gauge.builder("tasks.text.offheap.reserved", reservedBytes, AtomicLong::get)
+                .description("Direct memory reserved for task texts").baseUnit("bytes").register(meterRegistry);
+        Gauge.builder("tasks.text.offheap.used", usedBytes, AtomicLong::get)
+                .description("Direct memory held by stored task texts").baseUnit("bytes").register(meterRegistry);
+    }
+
+    public TaskText store(String value) {
+        if (value == null) {
+            return null;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        int need = HEADER_BYTES + utf8.length;
+        Slab slab;
+        int offset;
+        SizeClass sizeClass = classFor(need);
+        if (sizeClass == null) {
+            slab = newSlab(null, need, 1);
+            offset = slab.pop();
+        } else {
+            sizeClass.lock.lock();
+            try {
+                slab = sizeClass.slabWithRoom();
+                offset = slab.pop();
+                if (slab.free == 0) {
+                    sizeClass.partial.pollFirst();
+                }
+            } finally {
+                sizeClass.lock.unlock();
+            }
+        }
+        ByteBuffer buffer = slab.buffer;
+        buffer.putInt(offset + 4, utf8.length);
+        buffer.put(offset + HEADER_BYTES, utf8);
+        usedBytes.addAndGet(slab.chunkBytes);
+        return new OffHeapText(slab, offset, (int) INT.getVolatile(buffer, offset), utf8.length);
+    }
+
+    /**
+     * Return the chunks released more than the grace period ago to their size classes.
+     * Called from the housekeeping schedule.
+     */
+    public void reclaim() {
+        reclaim(System.nanoTime());
+    }
+
+    /**
+     * Reclaim as of {@code nowNanos}, on the {@link System#nanoTime()} scale. Synchronized
+     * so that it may run next to the housekeeping schedule.
+     */
+    synchronized void reclaim(long nowNanos) {
+        Released chunk;
+        while ((chunk = released.peek()) != null && nowNanos - chunk.releasedAt() >= graceNanos) {
+            released.poll();
+            Slab slab = chunk.slab();
+            OffHeapText reader = chunk.handle().get();
+            if (reader != null) {
+                reader.detach();
+            }
+            INT.setVolatile(slab.buffer, chunk.offset(), chunk.generation() + 1);
+            usedBytes.addAndGet(-slab.chunkBytes);
+            SizeClass sizeClass = slab.sizeClass;
+            if (sizeClass != null) {
+                sizeClass.lock.lock();
+                try {
+                    sizeClass.free(slab, chunk.offset());
+                } finally {
+                    sizeClass.lock.unlock();
+                }
+            }
+        }
+        Reference<? extends Slab> gone;
+        while ((gone = collected.poll()) != null) {
+            slabs.remove(gone);
+            reservedBytes.addAndGet(-((SlabReference) gone).capacity);
+        }
+    }
+
+    private Slab newSlab(SizeClass sizeClass, int chunkBytes, int chunks) {
+        Slab slab = new Slab(sizeClass, chunkBytes, chunks);
+        reservedBytes.addAndGet(slab.capacity());
+        slabs.add(new SlabReference(slab, collected));
+        return slab;
+    }
+
+    long reservedBytes() {
+        return reservedBytes.get();
+    }
+
+    long usedBytes() {
+        return usedBytes.get();
+    }
+
+    private SizeClass classFor(int bytes) {
+        for (SizeClass sizeClass : classes) {
+            if (sizeClass.chunkBytes >= bytes) {
+                return sizeClass;
+            }
+        }
+        return null;
+    }
+
+    private final class SizeClass {
+        private final int chunkBytes;
+        private final ReentrantLock lock = new ReentrantLock();
+        /** Slabs with at least one free chunk; allocation takes from the first. */
+        private final ArrayDeque<Slab> partial = new ArrayDeque<>();
+
+        private SizeClass(int chunkBytes) {
+            this.chunkBytes = chunkBytes;
+        }
+
+        private Slab slabWithRoom() {
+            Slab slab = partial.peekFirst();
+            if (slab == null) {
+                slab = newSlab(this, chunkBytes, slabBytes / chunkBytes);
+                partial.addFirst(slab);
+            }
+            return slab;
+        }
+
+        private void free(Slab slab, int offset) {
+            boolean wasFull = slab.free == 0;
+            slab.push(offset);
+            if (wasFull) {
+                partial.addLast(slab);
+            }
+            if (slab.free == slab.chunks && partial.size() > 1) {
+                partial.remove(slab);
+            }
+        }
+    }
+
+    private static final class Slab {
+        private final SizeClass sizeClass;
+        private final ByteBuffer buffer;
+        private final int chunkBytes;
+        private final int chunks;
+        private final int[] freeChunks;
+        private int free;
+
+        private Slab(SizeClass sizeClass, int chunkBytes, int chunks) {
+            this.sizeClass = sizeClass;
+            this.chunkBytes = chunkBytes;
+            this.chunks = chunks;
+            // Aligned so the generation header can be read with volatile semantics
+            this.buffer = ByteBuffer.allocateDirect(chunkBytes * chunks + 7).alignedSlice(8).order(ByteOrder.nativeOrder());
+            this.freeChunks = new int[chunks];
+            for (int i = 0; i < chunks; i++) {
+                freeChunks[i] = chunks - 1 - i;
+            }
+            this.free = chunks;
+        }
+
+        private int capacity() {
+            return chunkBytes * chunks;
+        }
+
+        private int pop() {
+            return freeChunks[--free] * chunkBytes;
+        }
+
+        private void push(int offset) {
+            freeChunks[free++] = offset / chunkBytes;
+        }
+    }
+
+    private static final class SlabReference extends PhantomReference<Slab> {
+        private final int capacity;
+
+        private SlabReference(Slab slab, ReferenceQueue<Slab> queue) {
+            super(slab, queue);
+            this.capacity = slab.capacity();
+        }
+    }
+
+    /**
+     * A released chunk waiting out the grace period. It refers to the handle weakly so
+     * that the handle can go with its last snapshot.
+     */
+    private record Released(Slab slab, int offset, int generation, long releasedAt,
+                            WeakReference<OffHeapText> handle) {
+    }
+
+    private final class OffHeapText implements TaskText {
+        /** Dropped once the text is detached, so the handle no longer holds the buffer. */
+        private volatile Slab slab;
+        private final int offset;
+        private final int generation;
+        private final int length;
+        private final int chunkBytes;
+        private final AtomicBoolean releasing = new AtomicBoolean();
+        /** The text on the heap once its chunk is reclaimed while the handle is still reachable. */
+        private volatile String detached;
+
+        private OffHeapText(Slab slab, int offset, int generation, int length) {
+            this.slab = slab;
+            this.chunkBytes = slab.chunkBytes;
+            this.offset = offset;
+            this.generation = generation;
+            this.length = length;
+        }
+
+        @Override
+        public String get() {
+            String copy = detached;
+            if (copy != null) {
+                return copy;
+            }
+            Slab current = slab;
+            if (current == null) {
+                return detached;
+            }
+            ByteBuffer buffer = current.buffer;
+            byte[] utf8 = new byte[length];
+            if (!isLive(buffer)) {
+                return detached;
+            }
+            buffer.get(offset + HEADER_BYTES, utf8);
+            VarHandle.loadLoadFence();
+            // The copy is published before the generation moves on
+            return isLive(buffer) ? new String(utf8, StandardCharsets.UTF_8) : detached;
+        }
+
+        @Override
+        public long footprint() {
+            return chunkBytes;
+        }
+
+        @Override
+        public void release() {
+            if (releasing.compareAndSet(false, true)) {
+                released.add(new Released(slab, offset, generation, System.nanoTime(), new WeakReference<>(this)));
+            }
+        }
+
+        /**
+         * Copy the text onto the heap while the chunk still holds it, then let go of the slab.
+         */
+        private void detach() {
+            byte[] utf8 = new byte[length];
+            slab.buffer.get(offset + HEADER_BYTES, utf8);
+            detached = new String(utf8, StandardCharsets.UTF_8);
+            slab = null;
+        }
+
+        private boolean isLive(ByteBuffer buffer) {
+            return (int) INT.getVolatile(buffer, offset) == generation;
+        }
+    }
+}
@@ -2,12 +2,15 @@ package com.example.a2a.service;
 
 import com.example.a2a.model.Task;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.*;
@@ -21,13 +24,14 @@ public class StreamingService {
 
     private final TaskService taskService;
     private final WeatherService weatherService;
-    private final ObjectMapper objectMapper;
+    private final ObjectWriter eventWriter;
+    private final TaskUpdate.Encoding<List<String>> frames = new TaskUpdate.Encoding<>(this::encodeFrames);
     private final ExecutorService executorService = Executors.newCachedThreadPool();
 
     public StreamingService(TaskService taskService, WeatherService weatherService, ObjectMapper objectMapper) {
         this.taskService = taskService;
         this.weatherService = weatherService;
-        this.objectMapper = objectMapper;
+        this.eventWriter = objectMapper.writerFor(SseEvent.class);
     }
 
     public SseEmitter streamMessage(String taskId, String messageText) {
@@ -65,21 +69,13 @@ public class StreamingService {
         return emitter;
     }
 
+    /**
+     * Subscribe to a task's updates. Any number of clients may watch the same task;
+     * each update is encoded once and the same frames are sent to every subscriber.
+     */
     public SseEmitter subscribeToTask(String taskId) {
         SseEmitter emitter = new SseEmitter(SSE_TIMEOUT);
         
-        if (!taskService.canSubscribe(taskId)) {
-            try {
-                emitter.send(SseEmitter.event()
-                    .name("error")
-                    .data("Task not found or already has subscriber"));
-                emitter.complete();
-            } catch (IOException e) {
-                emitter.completeWithError(e);
-            }
-            return emitter;
-        }
-        
         Task task = taskService.getTask(taskId);
         if (task == null) {
             try {
@@ -94,56 +90,92 @@ public class StreamingService {
         }
         
         // Register listener for updates
-        taskService.addListener(taskId, updatedTask -> {
-            try {
-                if (updatedTask.getState() == Task.TaskState.COMPLETED) {
-                    emitStatus(emitter, taskId, "completed");
-                    if (updatedTask.getResult() != null) {
-                        emitText(emitter, taskId, updatedTask.getResult());
-                    }
-                    emitter.complete();
-                    taskService.removeListener(taskId);
-                } else if (updatedTask.getState() == Task.TaskState.CANCELED) {
-                    emitStatus(emitter, taskId, "canceled");
-                    emitter.complete();
-                    taskService.removeListener(taskId);
-                } else {
-                    emitStatus(emitter, taskId, updatedTask.getState().name().toLowerCase());
-                }
-            } catch (Exception e) {
-                logger.error("Error in subscribe listener", e);
-                emitter.completeWithError(e);
-                taskService.removeListener(taskId);
-            }
-        });
+        TaskSubscriber subscriber = new TaskSubscriber(taskId, emitter);
+        taskService.addListener(taskId, subscriber);
         
         // Send current state immediately
         try {
             emitStatus(emitter, taskId, task.getState().name().toLowerCase());
-            if (task.getState() == Task.TaskState.COMPLETED && task.getResult() != null) {
+            if (task.getState() == Task.TaskState.COMPLETED && task.resultText() != null) {
                 emitText(emitter, taskId, task.getResult());
                 emitter.complete();
-                taskService.removeListener(taskId);
+                taskService.removeListener(taskId, subscriber);
             }
         } catch (Exception e) {
             logger.error("Error sending initial state", e);
             emitter.completeWithError(e);
-            taskService.removeListener(taskId);
+            taskService.removeListener(taskId, subscriber);
         }
         
         // Timeout cleanup
         emitter.onTimeout(() -> {
             logger.warn("SSE timeout for task: {}", taskId);
-            taskService.removeListener(taskId);
+            taskService.removeListener(taskId, subscriber);
         });
         
         emitter.onCompletion(() -> {
-            taskService.removeListener(taskId);
+            taskService.removeListener(taskId, subscriber);
         });
         
         return emitter;
     }
 
+    /**
+     * SSE frames for one task update, as JSON strings ready to be written.
+     */
+    private List<String> encodeFrames(TaskUpdate update) {
+        try {
+            String taskId = update.getTaskId();
+            String state = update.getState().name().toLowerCase();
+            if (update.getState() == Task.TaskState.COMPLETED && update.getTask().resultText() != null) {
+                return List.of(
+                    eventWriter.writeValueAsString(new SseEvent("task_status_update", taskId, state, null)),
+                    eventWriter.writeValueAsString(new SseEvent("task_artifact_update", taskId, null, update.getResult())));
+            }
+            return List.of(eventWriter.writeValueAsString(new SseEvent("task_status_update", taskId, state, null)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * One SSE client watching a task.
+     */
+    private final class TaskSubscriber implements TaskService.TaskUpdateListener {
+        private final String taskId;
+        private final SseEmitter emitter;
+
+        private TaskSubscriber(String taskId, SseEmitter emitter) {
+            this.taskId = taskId;
+            this.emitter = emitter;
+        }
+
+        @Override
+        public void onTaskUpdate(TaskUpdate update) {
+            try {
+                for (String frame : update.encoded(frames)) {
+                    emitter.send(SseEmitter.event()
+                        .name("message")
+                        .data(frame, MediaType.APPLICATION_JSON));
+                }
+                if (update.getState() == Task.TaskState.COMPLETED || update.getState() == Task.TaskState.CANCELED) {
+                    emitter.complete();
+                    taskService.removeListener(taskId, this);
+                }
+            } catch (Exception e) {
+                logger.error("Error in subscribe listener", e);
+                emitter.completeWithError(e);
+                taskService.removeListener(taskId, this);
+            }
+        }
+
+        @Override
+        public void onDropped() {
+            // The client stopped reading; end the stream so it can resubscribe
+            emitter.complete();
+        }
+    }
+
     private void emitStatus(SseEmitter emitter, String taskId, String state) throws IOException {
         SseEvent event = new SseEvent("task_status_update", taskId, state, null);
         emitter.send(SseEmitter.event()
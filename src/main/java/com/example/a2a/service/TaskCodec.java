@@ -0,0 +1,176 @@
+package com.example.a2a.service;
+
+import com.example.a2a.model.Task;
+import com.example.a2a.model.TaskHistory;
+import com.example.a2a.model.TaskText;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary form of a {@link Task} snapshot for the task log.
+ *
+ * <p>Strings are a length-prefixed UTF-8 run, {@code -1} standing for {@code null}, so
+ * there is no 64 KB limit on results. A part that shares the task's result text is
+ * written as a back-reference ({@code -2}) and decoded to the result's {@link TaskText},
+ * so the text is stored once and the sharing that {@link TaskWeigher} counts on survives.
+ * The packed {@link TaskHistory} entries close the record; a record written before
+ * histories were logged ends without them and gets one derived from its timestamps.
+ *
+ * <p>A task that left the store is logged as a removal: the {@value #REMOVED} marker in
+ * place of the state, then the version of the removed snapshot and the id.
+ */
+final class TaskCodec {
+
+    private static final Task.TaskState[] STATES = Task.TaskState.values();
+    private static final int SAME_AS_RESULT = -2;
+    static final byte REMOVED = -1;
+
+    private TaskCodec() {}
+
+    static byte[] encode(Task task) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(task.getState().ordinal());
+            out.writeLong(task.getVersion());
+            writeInstant(out, task.getCreatedAt());
+            writeInstant(out, task.getUpdatedAt());
+            writeString(out, task.getId());
+            writeString(out, task.getResult());
+            List<Task.Artifact> artifacts = task.getArtifacts();
+            out.writeInt(artifacts == null ? -1 : artifacts.size());
+            if (artifacts != null) {
+                for (Task.Artifact artifact : artifacts) {
+                    writeString(out, artifact.getName());
+                    out.writeInt(artifact.getParts().size());
+                    for (Task.Part part : artifact.getParts()) {
+                        writeString(out, part.getType());
+                        if (part.textContent() != null && part.textContent() == task.resultText()) {
+                            out.writeInt(SAME_AS_RESULT);
+                        } else {
+                            writeString(out, part.getText());
+                        }
+                    }
+                }
+            }
+            TaskHistory history = task.history();
+            out.writeInt(history.dropped());
+            out.writeInt(history.size());
+            for (long entry : history.entries()) {
+                out.writeLong(entry);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static byte[] encodeRemoval(Task task) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(32);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(REMOVED);
+            out.writeLong(task.getVersion());
+            writeString(out, task.getId());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static boolean isRemoval(ByteBuffer in) {
+        return in.get(in.position()) == REMOVED;
+    }
+
+    static Removal decodeRemoval(ByteBuffer in) {
+        in.get();
+        long version = in.getLong();
+        return new Removal(readString(in), version);
+    }
+
+    static Task decode(ByteBuffer in) {
+        Task.TaskState state = STATES[in.get()];
+        long version = in.getLong();
+        Instant createdAt = readInstant(in);
+        Instant updatedAt = readInstant(in);
+        String id = readString(in);
+        TaskText result = TaskText.of(readString(in));
+        int artifactCount = in.getInt();
+        List<Task.Artifact> artifacts = null;
+        if (artifactCount >= 0) {
+            artifacts = new ArrayList<>(artifactCount);
+            for (int i = 0; i < artifactCount; i++) {
+                String name = readString(in);
+                int partCount = in.getInt();
+                List<Task.Part> parts = new ArrayList<>(partCount);
+                for (int j = 0; j < partCount; j++) {
+                    String type = readString(in);
+                    if (in.getInt(in.position()) == SAME_AS_RESULT) {
+                        in.getInt();
+                        parts.add(new Task.Part(type, result));
+                    } else {
+                        parts.add(new Task.Part(type, readString(in)));
+                    }
+                }
+                artifacts.add(new Task.Artifact(name, parts));
+            }
+            artifacts = List.copyOf(artifacts);
+        }
+        TaskHistory history = null;
+        if (in.hasRemaining()) {
+            int dropped = in.getInt();
+            long[] entries = new long[in.getInt()];
+            for (int i = 0; i < entries.length; i++) {
+                entries[i] = in.getLong();
+            }
+            history = TaskHistory.of(entries, dropped);
+        }
+        return Task.restore(id, state, result, artifacts, createdAt, updatedAt, version, history);
+    }
+
+    private static void writeInstant(DataOutputStream out, Instant instant) throws IOException {
+        out.writeLong(instant.getEpochSecond());
+        out.writeInt(instant.getNano());
+    }
+
+    private static Instant readInstant(ByteBuffer in) {
+        return Instant.ofEpochSecond(in.getLong(), in.getInt());
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(utf8.length);
+        out.write(utf8);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        if (!in.hasArray()) {
+            byte[] utf8 = new byte[length];
+            in.get(utf8);
+            return new String(utf8, StandardCharsets.UTF_8);
+        }
+        String value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+
+    /**
+     * The snapshot {@code version} of task {@code id} left the store.
+     */
+    record Removal(String id, long version) {
+    }
+}
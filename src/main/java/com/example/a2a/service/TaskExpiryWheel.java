@@ -0,0 +1,99 @@
+package com.example.a2a.service;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel of expiry deadlines.
+ *
+ * <p>An entry is hashed into the slot of its deadline tick. {@link #advance} visits
+ * only the slots whose ticks have passed since the previous call; entries due in a later
+ * revolution of the wheel are put back, the rest are handed to the expiry callback. The
+ * cost of a tick is proportional to the entries in one slot, not to everything scheduled.
+ *
+ * <p>{@link #schedule} may be called from any thread; {@link #advance} is called from a
+ * single housekeeping thread.
+ */
+class TaskExpiryWheel<E> {
+
+    private final long tickMs;
+    private final Queue<Entry<E>>[] slots;
+    private volatile long lastTick;
+
+    @SuppressWarnings("unchecked")
+    TaskExpiryWheel(long tickMs, int slotCount, long nowMs) {
+        if (tickMs < 1 || slotCount < 1) {
+            throw new IllegalArgumentException("Timing wheel needs tickMs >= 1 and slotCount >= 1");
+        }
+        this.tickMs = tickMs;
+        this.slots = new Queue[slotCount];
+        for (int i = 0; i < slotCount; i++) {
+            slots[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.lastTick = nowMs / tickMs;
+    }
+
+    /**
+     * An entry goes into the slot of the first tick at or after its deadline, so it is
+     * due whenever that slot is visited; deadlines whose tick has already been visited
+     * go into the next tick's slot.
+     *
+     * <p>An {@link #advance} running meanwhile may pass the chosen tick after it was
+     * picked and drain the slot before the entry arrives, which would leave the entry
+     * for a whole revolution. So when the tick turns out to have passed, the entry is
+     * taken back and placed again, unless the advance already took it.
+     */
+    void schedule(E element, long deadlineMs) {
+        Entry<E> entry = new Entry<>(element, deadlineMs);
+        while (true) {
+            long tick = Math.max(Math.floorDiv(deadlineMs + tickMs - 1, tickMs), lastTick + 1);
+            Queue<Entry<E>> slot = slots[Math.floorMod(tick, slots.length)];
+            slot.offer(entry);
+            if (tick > lastTick || !slot.remove(entry)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Hand every entry whose deadline is at or before {@code nowMs} to {@code onExpired}.
+     */
+    void advance(long nowMs, Consumer<E> onExpired) {
+        long currentTick = nowMs / tickMs;
+        long ticks = Math.min(currentTick - lastTick, slots.length);
+        // Published first: a schedule for a tick visited here either lands in time or sees
+        // it and places its entry again
+        lastTick = currentTick;
+        for (long i = 0; i < ticks; i++) {
+            Queue<Entry<E>> slot = slots[Math.floorMod(currentTick - i, slots.length)];
+            for (int pending = slot.size(); pending > 0; pending--) {
+                Entry<E> entry = slot.poll();
+                if (entry == null) {
+                    break;
+                }
+                if (entry.deadlineMs() <= nowMs) {
+                    onExpired.accept(entry.element());
+                } else {
+                    slot.offer(entry);
+                }
+            }
+        }
+    }
+
+    /**
+     * Compared by identity, so {@link #schedule} takes back its own entry only.
+     */
+    private static final class Entry<E> {
+        private final E element;
+        private final long deadlineMs;
+
+        Entry(E element, long deadlineMs) {
+            this.element = element;
+            this.deadlineMs = deadlineMs;
+        }
+
+        E element() { return element; }
+        long deadlineMs() { return deadlineMs; }
+    }
+}
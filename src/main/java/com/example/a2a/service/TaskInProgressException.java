@@ -0,0 +1,16 @@
+package com.example.a2a.service;
+
+/**
+ * Thrown when a different message is sent for a task id whose earlier message is still
+ * being processed.
+ */
+public class TaskInProgressException extends IllegalStateException {
+    private final String taskId;
+
+    public TaskInProgressException(String taskId) {
+        super("Task " + taskId + " is still processing a different message");
+        this.taskId = taskId;
+    }
+
+    public String getTaskId() { return taskId; }
+}
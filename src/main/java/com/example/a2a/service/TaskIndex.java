@@ -0,0 +1,309 @@
+package com.example.a2a.service;
+
+import com.example.a2a.model.Task;
+import com.example.a2a.model.TaskPage;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Function;
+
+/**
+ * Secondary indexes of one shard of the task store for listing tasks without scanning it.
+ *
+ * <p>Tasks are kept in skip lists ordered by creation time and by last update, one of
+ * each per state and one over all states. The shard changes its indexes inside the same
+ * per-key compute that changes a task, so a task's entries follow its snapshots in order
+ * and shards never touch each other's indexes. A listing seeks to the start of its range
+ * or to the cursor in one skip list of every shard and merges them, so its cost grows
+ * with the page and the number of shards, not with the store.
+ *
+ * <p>Entries are read without locking against the store: a listing looks up the current
+ * snapshot of every entry it meets and skips those that no longer match, e.g. a task that
+ * moved on to another state between the two reads.
+ */
+final class TaskIndex {
+
+    private static final Base64.Encoder CURSOR_ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder CURSOR_DECODER = Base64.getUrlDecoder();
+
+    private final NavigableSet<Key> byCreated = new ConcurrentSkipListSet<>();
+    private final NavigableSet<Key> byUpdated = new ConcurrentSkipListSet<>();
+    private final Map<Task.TaskState, NavigableSet<Key>> byStateCreated = new EnumMap<>(Task.TaskState.class);
+    private final Map<Task.TaskState, NavigableSet<Key>> byStateUpdated = new EnumMap<>(Task.TaskState.class);
+
+    TaskIndex() {
+        for (Task.TaskState state : Task.TaskState.values()) {
+            byStateCreated.put(state, new ConcurrentSkipListSet<>());
+            byStateUpdated.put(state, new ConcurrentSkipListSet<>());
+        }
+    }
+
+    /**
+     * Move the entries of a task from {@code previous} to {@code next}; either may be
+     * {@code null} for a task that enters or leaves the store.
+     *
+     * <p>A transition of the same task keeps its entry in the creation order, so a
+     * listing walking that order never misses a live task. The other entries are added
+     * under their new key before the old one is removed; a listing that meets both skips
+     * the stale one when it looks the task up.
+     */
+    void replace(Task previous, Task next) {
+        if (previous == null || next == null || !previous.getId().equals(next.getId())
+                || previous.createdAtMillis() != next.createdAtMillis()) {
+            if (previous != null) {
+                remove(previous);
+            }
+            if (next != null) {
+                add(next);
+            }
+            return;
+        }
+        Key created = Key.created(next);
+        Key updatedBefore = Key.updated(previous);
+        Key updatedAfter = Key.updated(next);
+        move(byUpdated, updatedBefore, updatedAfter);
+        if (previous.getState() == next.getState()) {
+            move(byStateUpdated.get(next.getState()), updatedBefore, updatedAfter);
+            return;
+        }
+        byStateCreated.get(next.getState()).add(created);
+        byStateUpdated.get(next.getState()).add(updatedAfter);
+        byStateCreated.get(previous.getState()).remove(created);
+        byStateUpdated.get(previous.getState()).remove(updatedBefore);
+    }
+
+    private static void move(NavigableSet<Key> keys, Key from, Key to) {
+        if (!from.equals(to)) {
+            keys.add(to);
+            keys.remove(from);
+        }
+    }
+
+    void add(Task task) {
+        Key created = Key.created(task);
+        Key updated = Key.updated(task);
+        byCreated.add(created);
+        byUpdated.add(updated);
+        byStateCreated.get(task.getState()).add(created);
+        byStateUpdated.get(task.getState()).add(updated);
+    }
+
+    void remove(Task task) {
+        Key created = Key.created(task);
+        Key updated = Key.updated(task);
+        byCreated.remove(created);
+        byUpdated.remove(updated);
+        byStateCreated.get(task.getState()).remove(created);
+        byStateUpdated.get(task.getState()).remove(updated);
+    }
+
+    /**
+     * Every current task of all {@code indexes}, oldest first, looked up through {@code lookup}.
+     */
+    static Iterator<Task> byCreation(List<TaskIndex> indexes, Function<String, Task> lookup) {
+        List<Iterator<Key>> sources = new ArrayList<>(indexes.size());
+        for (TaskIndex index : indexes) {
+            sources.add(index.byCreated.iterator());
+        }
+        Iterator<Key> keys = new MergedKeys(sources);
+        return new Iterator<>() {
+            private Task next = advance();
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Task next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                Task task = next;
+                next = advance();
+                return task;
+            }
+
+            private Task advance() {
+                while (keys.hasNext()) {
+                    Key key = keys.next();
+                    Task task = lookup.apply(key.id());
+                    if (task != null && nanos(task.createdAtMillis()) == key.nanos()) {
+                        return task;
+                    }
+                }
+                return null;
+            }
+        };
+    }
+
+    /**
+     * List the tasks of all {@code indexes} matching {@code query}, oldest first. Queries
+     * on the update time walk the update order of the queried state or of all tasks;
+     * other queries walk the creation order instead.
+     *
+     * @throws IllegalArgumentException if the cursor was not issued for this kind of query
+     */
+    static TaskPage list(List<TaskIndex> indexes, TaskQuery query, Function<String, Task> lookup) {
+        boolean updateOrder = query.hasUpdatedRange();
+        Instant from = updateOrder ? query.updatedFrom() : query.createdFrom();
+        Instant to = updateOrder ? query.updatedTo() : query.createdTo();
+
+        Key after = query.cursor() != null ? decodeCursor(query.cursor(), updateOrder) : null;
+        Key lower = from != null ? Key.of(from, "") : null;
+        boolean lowerInclusive = true;
+        if (after != null && (lower == null || after.compareTo(lower) >= 0)) {
+            lower = after;
+            lowerInclusive = false;
+        }
+        Key upper = to != null ? Key.of(to, "") : null;
+        if (lower != null && upper != null && lower.compareTo(upper) >= 0) {
+            return new TaskPage(List.of(), null);
+        }
+        List<Iterator<Key>> sources = new ArrayList<>(indexes.size());
+        for (TaskIndex index : indexes) {
+            sources.add(range(index.source(query.state(), updateOrder), lower, lowerInclusive, upper).iterator());
+        }
+
+        List<Task> page = new ArrayList<>(Math.min(query.limit(), 64));
+        Iterator<Key> keys = new MergedKeys(sources);
+        Key last = null;
+        while (keys.hasNext() && page.size() < query.limit()) {
+            Key key = keys.next();
+            Task task = lookup.apply(key.id());
+            long indexed = task == null ? -1 : nanos(updateOrder ? task.updatedAtMillis() : task.createdAtMillis());
+            // Skip entries of a snapshot or an incarnation of the id that has since been replaced
+            if (indexed == key.nanos() && query.matches(task)) {
+                page.add(task);
+                last = key;
+            }
+        }
+        String nextCursor = last != null && keys.hasNext() ? encodeCursor(last, updateOrder) : null;
+        return new TaskPage(page, nextCursor);
+    }
+
+    private NavigableSet<Key> source(Task.TaskState state, boolean updateOrder) {
+        if (state == null) {
+            return updateOrder ? byUpdated : byCreated;
+        }
+        return (updateOrder ? byStateUpdated : byStateCreated).get(state);
+    }
+
+    private static NavigableSet<Key> range(NavigableSet<Key> source, Key lower, boolean lowerInclusive, Key upper) {
+        if (lower != null && upper != null) {
+            return source.subSet(lower, lowerInclusive, upper, false);
+        } else if (lower != null) {
+            return source.tailSet(lower, lowerInclusive);
+        } else if (upper != null) {
+            return source.headSet(upper, false);
+        }
+        return source;
+    }
+
+    private static String encodeCursor(Key key, boolean updateOrder) {
+        String value = (updateOrder ? "u" : "c") + key.nanos() + ":" + key.id();
+        return CURSOR_ENCODER.encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Key decodeCursor(String cursor, boolean updateOrder) {
+        String value;
+        try {
+            value = new String(CURSOR_DECODER.decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+        int separator = value.indexOf(':');
+        if (separator < 2 || value.charAt(0) != (updateOrder ? 'u' : 'c')) {
+            throw new IllegalArgumentException("Cursor does not belong to this query");
+        }
+        try {
+            return new Key(Long.parseLong(value.substring(1, separator)), value.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+    }
+
+    private static long nanos(Instant instant) {
+        return instant.getEpochSecond() * 1_000_000_000L + instant.getNano();
+    }
+
+    /**
+     * Task times are whole milliseconds; keys stay in nanoseconds so that query bounds
+     * and issued cursors keep their precision.
+     */
+    private static long nanos(long epochMillis) {
+        return epochMillis * 1_000_000L;
+    }
+
+    private record Key(long nanos, String id) implements Comparable<Key> {
+
+        static Key of(Instant instant, String id) {
+            return new Key(TaskIndex.nanos(instant), id);
+        }
+
+        static Key created(Task task) {
+            return new Key(TaskIndex.nanos(task.createdAtMillis()), task.getId());
+        }
+
+        static Key updated(Task task) {
+            return new Key(TaskIndex.nanos(task.updatedAtMillis()), task.getId());
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            int byTime = Long.compare(nanos, other.nanos);
+            return byTime != 0 ? byTime : id.compareTo(other.id);
+        }
+    }
+
+    /**
+     * The keys of several ascending iterators in one ascending order. Keys of different
+     * shards never tie, since each id lives in exactly one shard.
+     */
+    private static final class MergedKeys implements Iterator<Key> {
+        private final PriorityQueue<Head> heads;
+
+        MergedKeys(List<Iterator<Key>> sources) {
+            heads = new PriorityQueue<>(Math.max(1, sources.size()));
+            for (Iterator<Key> source : sources) {
+                if (source.hasNext()) {
+                    heads.add(new Head(source.next(), source));
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !heads.isEmpty();
+        }
+
+        @Override
+        public Key next() {
+            Head head = heads.poll();
+            if (head == null) {
+                throw new NoSuchElementException();
+            }
+            if (head.rest().hasNext()) {
+                heads.add(new Head(head.rest().next(), head.rest()));
+            }
+            return head.key();
+        }
+
+        private record Head(Key key, Iterator<Key> rest) implements Comparable<Head> {
+            @Override
+            public int compareTo(Head other) {
+                return key.compareTo(other.key);
+            }
+        }
+    }
+}
@@ -0,0 +1,351 @@
+package com.example.a2a.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Copy-on-write set of the listeners of one task.
+ *
+ * <p>The listeners live in an immutable array swapped with CAS, so notification
+ * iterates a snapshot without locking and adding or removing one listener never
+ * disturbs the others. When the last listener leaves, the set is closed: later adds
+ * fail and the caller installs a fresh set, so a listener can never be added to a set
+ * that has already been dropped from the task's map.
+ *
+ * <p>The set is also the task's serial mailbox. {@link #publish} only enqueues the update
+ * together with the listeners subscribed at that moment; at most one drain per task runs
+ * on the notification executor, so listeners see the task's updates in publish order
+ * while the thread that changed the task never waits on them. A drain hands its thread
+ * back after {@value #DRAIN_BATCH} updates or {@value #DRAIN_BUDGET_MS} ms so busy tasks
+ * take turns with quiet ones.
+ *
+ * <p>A listener whose call takes longer than {@value #STALL_MS} ms, e.g. a stream to a
+ * client that stopped reading, is handed off to a lane of its own on the stalled
+ * executor and gets the following updates there, still in order. Once its lane has
+ * caught up and its last call was fast again, it returns to the shared threads. The
+ * stalled executor is bounded: a listener whose lane finds no thread free, or that has
+ * not made progress for the stall timeout, is dropped from the set and told through
+ * {@link TaskService.TaskUpdateListener#onDropped()}. When the notification executor
+ * refuses a drain, the queued updates are dropped, so publishing never fails the change
+ * that triggered it.
+ */
+final class TaskListenerSet {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskListenerSet.class);
+    private static final int DRAIN_BATCH = 32;
+    private static final long DRAIN_BUDGET_MS = 10;
+    private static final long STALL_MS = 50;
+    private static final long STALLED_TIMEOUT_MS = 10_000;
+
+    private static final TaskService.TaskUpdateListener[] EMPTY = {};
+    private static final TaskService.TaskUpdateListener[] CLOSED = {};
+
+    private final AtomicReference<TaskService.TaskUpdateListener[]> listeners = new AtomicReference<>(EMPTY);
+    private final Queue<Delivery> mailbox = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    /** Lanes of the listeners handed off after a stall; only touched once one stalls. */
+    private final Map<TaskService.TaskUpdateListener, StalledLane> stalled = new ConcurrentHashMap<>();
+    private final long stalledTimeoutNanos;
+
+    TaskListenerSet() {
+        this(STALLED_TIMEOUT_MS);
+    }
+
+    /**
+     * @param stalledTimeoutMs how long a stalled listener may go without progress before
+     *                         it is dropped
+     */
+    TaskListenerSet(long stalledTimeoutMs) {
+        this.stalledTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(stalledTimeoutMs);
+    }
+
+    /**
+     * @return {@code false} if the set is closed and the listener was not added
+     */
+    boolean add(TaskService.TaskUpdateListener listener) {
+        while (true) {
+            TaskService.TaskUpdateListener[] current = listeners.get();
+            if (current == CLOSED) {
+                return false;
+            }
+            TaskService.TaskUpdateListener[] next = Arrays.copyOf(current, current.length + 1);
+            next[current.length] = listener;
+            if (listeners.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @return {@code true} if this removed the last listener and closed the set
+     */
+    boolean remove(TaskService.TaskUpdateListener listener) {
+        boolean removed = detach(listener);
+        // Also forgets the lane of a listener that was dropped after a stall
+        StalledLane lane = stalled.remove(listener);
+        if (lane != null) {
+            lane.close();
+        }
+        return removed && listeners.get() == CLOSED;
+    }
+
+    /**
+     * @return {@code true} if the listener was in the set
+     */
+    private boolean detach(TaskService.TaskUpdateListener listener) {
+        while (true) {
+            TaskService.TaskUpdateListener[] current = listeners.get();
+            int index = indexOf(current, listener);
+            if (index < 0) {
+                return false;
+            }
+            TaskService.TaskUpdateListener[] next;
+            if (current.length == 1) {
+                next = CLOSED;
+            } else {
+                next = new TaskService.TaskUpdateListener[current.length - 1];
+                System.arraycopy(current, 0, next, 0, index);
+                System.arraycopy(current, index + 1, next, index, current.length - index - 1);
+            }
+            if (listeners.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    void close() {
+        listeners.set(CLOSED);
+        for (StalledLane lane : stalled.values()) {
+            lane.close();
+        }
+        stalled.clear();
+    }
+
+    int size() {
+        return listeners.get().length;
+    }
+
+    /**
+     * Queue {@code update} for the current listeners and make sure a drain is scheduled.
+     * Never throws: a refused drain drops the queued updates instead.
+     *
+     * @param stalledExecutor runs the lanes of stalled listeners; {@code null} keeps every
+     *                        listener on {@code executor}
+     */
+    void publish(TaskUpdate update, Executor executor, Executor stalledExecutor) {
+        TaskService.TaskUpdateListener[] recipients = listeners.get();
+        if (recipients.length == 0) {
+            return;
+        }
+        mailbox.offer(new Delivery(update, recipients));
+        if (pending.getAndIncrement() == 0) {
+            schedule(executor, stalledExecutor);
+        }
+    }
+
+    private void schedule(Executor executor, Executor stalledExecutor) {
+        try {
+            executor.execute(() -> drain(executor, stalledExecutor));
+        } catch (RejectedExecutionException e) {
+            int dropped = 0;
+            do {
+                mailbox.poll();
+                dropped++;
+            } while (pending.decrementAndGet() != 0);
+            logger.warn("Task notifications refused, dropped {} updates", dropped);
+        }
+    }
+
+    private void drain(Executor executor, Executor stalledExecutor) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(DRAIN_BUDGET_MS);
+        for (int i = 0; i < DRAIN_BATCH; i++) {
+            Delivery delivery = mailbox.poll();
+            for (TaskService.TaskUpdateListener listener : delivery.recipients()) {
+                deliver(listener, delivery.update(), stalledExecutor);
+            }
+            if (pending.decrementAndGet() == 0) {
+                return;
+            }
+            if (System.nanoTime() - deadline > 0) {
+                break;
+            }
+        }
+        schedule(executor, stalledExecutor);
+    }
+
+    private void deliver(TaskService.TaskUpdateListener listener, TaskUpdate update, Executor stalledExecutor) {
+        if (!stalled.isEmpty()) {
+            StalledLane lane = stalled.get(listener);
+            if (lane != null && !handOff(listener, lane, update, stalledExecutor)) {
+                return;
+            }
+        }
+        long start = System.nanoTime();
+        try {
+            listener.onTaskUpdate(update);
+        } catch (RuntimeException e) {
+            logger.warn("Listener of task {} failed", update.getTaskId(), e);
+        }
+        if (stalledExecutor != null && System.nanoTime() - start > TimeUnit.MILLISECONDS.toNanos(STALL_MS)
+                && indexOf(listeners.get(), listener) >= 0) {
+            stalled.put(listener, new StalledLane(listener));
+            logger.warn("Listener of task {} stalled, moving it off the shared notification threads",
+                    update.getTaskId());
+        }
+    }
+
+    /**
+     * Pass {@code update} to the lane of a stalled listener, or drop the listener if its
+     * lane is stuck or finds no thread.
+     *
+     * @return {@code true} if the listener has recovered and should be called here
+     */
+    private boolean handOff(TaskService.TaskUpdateListener listener, StalledLane lane, TaskUpdate update,
+                            Executor stalledExecutor) {
+        if (lane.dropped) {
+            return false;
+        }
+        if (lane.recovered()) {
+            stalled.remove(listener, lane);
+            logger.info("Listener of task {} caught up, moving it back to the shared notification threads",
+                    update.getTaskId());
+            return true;
+        }
+        if (System.nanoTime() - lane.progressAt > stalledTimeoutNanos && lane.pending.get() > 0) {
+            logger.warn("Listener of task {} made no progress for {} ms, dropping it", update.getTaskId(),
+                    TimeUnit.NANOSECONDS.toMillis(stalledTimeoutNanos));
+        } else if (lane.offer(update, stalledExecutor)) {
+            return false;
+        } else {
+            logger.warn("No thread free for the stalled listener of task {}, dropping it", update.getTaskId());
+        }
+        detach(listener);
+        lane.drop();
+        return false;
+    }
+
+    private static int indexOf(TaskService.TaskUpdateListener[] listeners, TaskService.TaskUpdateListener listener) {
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i] == listener) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private record Delivery(TaskUpdate update, TaskService.TaskUpdateListener[] recipients) {
+    }
+
+    /**
+     * The updates of one stalled listener, delivered in order by at most one drain at a
+     * time on the stalled executor. The drain keeps its thread until the lane is empty, so
+     * a bounded executor is never asked for a second thread by the same lane.
+     */
+    private static final class StalledLane {
+        /** Queued behind the updates of a dropped lane to tell the listener once it is free. */
+        private static final Object DROPPED = new Object();
+
+        private final TaskService.TaskUpdateListener listener;
+        private final Queue<Object> mailbox = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pending = new AtomicInteger();
+        /** When the lane was last scheduled from idle or last finished a call. */
+        private volatile long progressAt = System.nanoTime();
+        /** Whether the last call stalled; the lane starts with the stall that made it. */
+        private volatile boolean slow = true;
+        private volatile boolean closed;
+        private volatile boolean dropped;
+
+        StalledLane(TaskService.TaskUpdateListener listener) {
+            this.listener = listener;
+        }
+
+        /**
+         * @return {@code false} if the executor refused the lane; its updates are dropped
+         */
+        boolean offer(TaskUpdate update, Executor executor) {
+            mailbox.offer(update);
+            if (pending.getAndIncrement() != 0) {
+                return true;
+            }
+            progressAt = System.nanoTime();
+            try {
+                executor.execute(this::drain);
+                return true;
+            } catch (RejectedExecutionException e) {
+                do {
+                    mailbox.poll();
+                } while (pending.decrementAndGet() != 0);
+                return false;
+            }
+        }
+
+        /**
+         * @return {@code true} if every update was delivered and the last call was fast
+         */
+        boolean recovered() {
+            return !slow && pending.get() == 0;
+        }
+
+        /**
+         * Deliver nothing more; a call in progress still finishes.
+         */
+        void close() {
+            closed = true;
+        }
+
+        /**
+         * Close the lane and call {@link TaskService.TaskUpdateListener#onDropped()} once
+         * the listener's current call, if any, returns.
+         */
+        void drop() {
+            closed = true;
+            dropped = true;
+            mailbox.offer(DROPPED);
+            if (pending.getAndIncrement() == 0) {
+                drain();
+            }
+        }
+
+        private void drain() {
+            do {
+                Object next = mailbox.poll();
+                if (next == DROPPED) {
+                    notifyDropped();
+                } else if (!closed) {
+                    call((TaskUpdate) next);
+                }
+            } while (pending.decrementAndGet() != 0);
+        }
+
+        private void call(TaskUpdate update) {
+            long start = System.nanoTime();
+            try {
+                listener.onTaskUpdate(update);
+            } catch (RuntimeException e) {
+                logger.warn("Listener of task {} failed", update.getTaskId(), e);
+            }
+            long end = System.nanoTime();
+            slow = end - start > TimeUnit.MILLISECONDS.toNanos(STALL_MS);
+            progressAt = end;
+        }
+
+        private void notifyDropped() {
+            try {
+                listener.onDropped();
+            } catch (RuntimeException e) {
+                logger.warn("Dropped task listener failed", e);
+            }
+        }
+    }
+}
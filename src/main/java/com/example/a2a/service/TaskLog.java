@@ -0,0 +1,518 @@
+package com.example.a2a.service;
+
+import com.example.a2a.model.Task;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only write-ahead log of task snapshots, split into segment files.
+ *
+ * <p>Every transition appends the whole resulting snapshot as a record of
+ * {@code [length][crc32][payload]}. Appends only enqueue the record; one writer thread
+ * drains whatever has queued up, writes it with a single gathering write and syncs the
+ * batch once (group commit). With {@code fsyncIntervalMs} of zero an append completes
+ * after its batch is on disk. Otherwise appends complete at once, the file is synced at
+ * most once per interval, and a crash may lose up to an interval of transitions; write
+ * failures are then only logged. A failed write or sync cuts the segment back to the
+ * last record that is known to be intact and fails the appends of the batch. If the
+ * segment cannot be cut back, the log rolls past it and opens the fresh segment with a
+ * cut record holding the intact length, so the next open trims the damaged one.
+ *
+ * <p>On open the segments are replayed in order: a version-zero record starts a task
+ * over, any other record applies if it is newer than what is known, so snapshots
+ * written by compaction may interleave with the live records that follow them. A
+ * removal record, appended when a task expires or is evicted, drops the task. A torn
+ * record at the end of the last segment is cut off; damage in any earlier segment fails
+ * the open, since records after it would be lost, unless a cut record covers it.
+ *
+ * <p>Compaction rolls to a fresh segment, takes every live task again and deletes the
+ * older segments, which also drops the removal records. See {@link #compact()} for how
+ * the snapshot stays consistent with concurrent appends.
+ */
+public class TaskLog implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskLog.class);
+    private static final String SUFFIX = ".wal";
+    private static final int HEADER_BYTES = 8;
+    private static final int MAX_BATCH = 1024;
+    /** Marks a cut record; task records start with a state ordinal or {@link TaskCodec#REMOVED}. */
+    private static final byte CUT = -2;
+    private static final int CUT_BYTES = 1 + Long.BYTES;
+    private static final CompletableFuture<Void> ACCEPTED = CompletableFuture.completedFuture(null);
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final long fsyncIntervalNanos;
+    private final long compactIntervalMs;
+    private final Map<String, Task> recovered;
+    private final BlockingQueue<Op> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+
+    private FileChannel segment;
+    private long segmentSequence;
+    private long syncedBytes;
+    private List<Path> compacted;
+    private long lastSync = System.nanoTime();
+    private boolean unsynced;
+    private volatile boolean closed;
+
+    public TaskLog(Path directory, long segmentBytes, long fsyncIntervalMs, long compactIntervalMs) throws IOException {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.fsyncIntervalNanos = TimeUnit.MILLISECONDS.toNanos(fsyncIntervalMs);
+        this.compactIntervalMs = compactIntervalMs;
+        Files.createDirectories(directory);
+        List<Path> segments = segments();
+        this.recovered = replay(segments);
+        this.segmentSequence = segments.isEmpty() ? 0 : sequenceOf(segments.get(segments.size() - 1));
+        this.segment = openNextSegment();
+        this.writer = new Thread(this::run, "task-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * The tasks as of the last record on disk when the log was opened.
+     */
+    public Map<String, Task> recoveredTasks() {
+        return recovered;
+    }
+
+    public long getCompactIntervalMs() {
+        return compactIntervalMs;
+    }
+
+    /**
+     * Queue {@code task} for the log. Records of one task must be appended in the order
+     * of its transitions; the caller serializes them.
+     */
+    public CompletableFuture<Void> append(Task task) {
+        Append append = new Append(TaskCodec.encode(task), new CompletableFuture<>());
+        enqueue(append);
+        return fsyncIntervalNanos == 0 ? append.done() : ACCEPTED;
+    }
+
+    /**
+     * Queue the removal of {@code task}, the last snapshot of its id in the store, so
+     * that replay drops it. Ordered with the task's other records like an append.
+     */
+    public CompletableFuture<Void> appendRemoval(Task task) {
+        Append append = new Append(TaskCodec.encodeRemoval(task), new CompletableFuture<>());
+        enqueue(append);
+        return fsyncIntervalNanos == 0 ? append.done() : ACCEPTED;
+    }
+
+    /**
+     * Start replacing every record written so far by a snapshot of the live tasks.
+     *
+     * <p>Records appended after this call go to a fresh segment. The caller then passes
+     * every live task to {@link Compaction#add(Task)}, serialized with the appends of that
+     * task as they are, and {@link Compaction#finish()} deletes the older segments once
+     * the snapshot is on disk. A task's records before the cut are then covered by its
+     * snapshot and those after it follow in the fresh segment. A task whose first record
+     * was appended before the cut must be visible to the caller by the time it takes the
+     * snapshot. One compaction at a time.
+     */
+    public Compaction compact() {
+        enqueue(new Roll(new CompletableFuture<>()));
+        return new Compaction();
+    }
+
+    /**
+     * Write and sync everything queued so far, whatever the fsync interval.
+     */
+    public CompletableFuture<Void> flush() {
+        Flush flush = new Flush(new CompletableFuture<>());
+        enqueue(flush);
+        return flush.done();
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (queue) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            queue.add(Shutdown.INSTANCE);
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Checked and added under the lock {@link #close()} takes, so that no op can follow
+     * the shutdown marker and be left without an answer.
+     */
+    private void enqueue(Op op) {
+        synchronized (queue) {
+            if (closed) {
+                throw new IllegalStateException("Task log is closed");
+            }
+            queue.add(op);
+        }
+    }
+
+    private void run() {
+        List<Op> batch = new ArrayList<>();
+        while (true) {
+            try {
+                Op first = fsyncIntervalNanos == 0
+                        ? queue.take()
+                        : queue.poll(fsyncIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    syncIfDue(false);
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, MAX_BATCH - 1);
+                if (!process(batch)) {
+                    sync();
+                    segment.close();
+                    return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException e) {
+                logger.error("Task log write failed", e);
+                // Records of the snapshot may have been cut off with the failed write
+                compacted = null;
+                for (Op op : batch) {
+                    op.done().completeExceptionally(new UncheckedIOException(e));
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * @return {@code false} once the shutdown marker is reached
+     */
+    private boolean process(List<Op> batch) throws IOException {
+        List<ByteBuffer> buffers = new ArrayList<>(batch.size() * 2);
+        List<CompletableFuture<Void>> appended = new ArrayList<>(batch.size());
+        for (Op op : batch) {
+            if (op instanceof Append append) {
+                addRecord(buffers, append.record());
+                appended.add(append.done());
+            } else if (op instanceof Roll roll) {
+                write(buffers);
+                List<Path> obsolete = segments();
+                roll();
+                complete(appended);
+                compacted = obsolete;
+                roll.done().complete(null);
+            } else if (op instanceof Seal seal) {
+                write(buffers);
+                sync();
+                complete(appended);
+                seal(seal);
+            } else if (op instanceof Flush flush) {
+                write(buffers);
+                sync();
+                complete(appended);
+                flush.done().complete(null);
+            } else {
+                write(buffers);
+                sync();
+                complete(appended);
+                return false;
+            }
+        }
+        write(buffers);
+        syncIfDue(fsyncIntervalNanos == 0);
+        complete(appended);
+        return true;
+    }
+
+    private void seal(Seal seal) throws IOException {
+        List<Path> obsolete = compacted;
+        compacted = null;
+        if (obsolete == null) {
+            seal.done().completeExceptionally(
+                    new IOException("Task log compaction failed; the older segments are kept"));
+            return;
+        }
+        for (Path path : obsolete) {
+            Files.deleteIfExists(path);
+        }
+        seal.done().complete(null);
+    }
+
+    private static void addRecord(List<ByteBuffer> buffers, byte[] record) {
+        CRC32 crc = new CRC32();
+        crc.update(record);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(record.length).putInt((int) crc.getValue()).flip();
+        buffers.add(header);
+        buffers.add(ByteBuffer.wrap(record));
+    }
+
+    private void write(List<ByteBuffer> buffers) throws IOException {
+        if (buffers.isEmpty()) {
+            return;
+        }
+        ByteBuffer[] array = buffers.toArray(new ByteBuffer[0]);
+        long remaining = 0;
+        for (ByteBuffer buffer : array) {
+            remaining += buffer.remaining();
+        }
+        buffers.clear();
+        long start = segment.position();
+        try {
+            while (remaining > 0) {
+                remaining -= segment.write(array);
+            }
+        } catch (IOException e) {
+            discardFrom(start, e);
+            throw e;
+        }
+        unsynced = true;
+        if (segment.size() >= segmentBytes) {
+            roll();
+        }
+    }
+
+    private void syncIfDue(boolean force) throws IOException {
+        if (unsynced && (force || System.nanoTime() - lastSync >= fsyncIntervalNanos)) {
+            sync();
+        }
+    }
+
+    private void sync() throws IOException {
+        if (unsynced) {
+            try {
+                segment.force(false);
+            } catch (IOException e) {
+                // What the failed sync covered may or may not be on disk
+                discardFrom(syncedBytes, e);
+                throw e;
+            }
+            unsynced = false;
+            syncedBytes = segment.position();
+        }
+        lastSync = System.nanoTime();
+    }
+
+    /**
+     * Cut the segment back to {@code offset} after {@code failure}, so that the next
+     * records do not follow a torn one. If that fails as well, move on to a fresh segment
+     * that starts with a cut record for {@code offset}; replay then trims the damaged one
+     * there. Should the cut record not reach the disk either, the damaged segment fails
+     * replay until a compaction deletes it.
+     */
+    private void discardFrom(long offset, IOException failure) {
+        try {
+            segment.truncate(offset);
+            unsynced = offset > syncedBytes;
+        } catch (IOException e) {
+            failure.addSuppressed(e);
+            try {
+                FileChannel damaged = segment;
+                segment = openNextSegment();
+                syncedBytes = 0;
+                unsynced = false;
+                damaged.close();
+                List<ByteBuffer> cut = new ArrayList<>(2);
+                addRecord(cut, ByteBuffer.allocate(CUT_BYTES).put(CUT).putLong(offset).array());
+                for (ByteBuffer buffer : cut) {
+                    while (buffer.hasRemaining()) {
+                        segment.write(buffer);
+                    }
+                }
+                segment.force(false);
+                syncedBytes = segment.position();
+            } catch (IOException again) {
+                failure.addSuppressed(again);
+            }
+        }
+    }
+
+    private void roll() throws IOException {
+        sync();
+        FileChannel next = openNextSegment();
+        FileChannel previous = segment;
+        segment = next;
+        syncedBytes = 0;
+        previous.close();
+    }
+
+    private static void complete(List<CompletableFuture<Void>> appended) {
+        for (CompletableFuture<Void> done : appended) {
+            done.complete(null);
+        }
+        appended.clear();
+    }
+
+    private FileChannel openNextSegment() throws IOException {
+        segmentSequence++;
+        Path path = directory.resolve(String.format("%020d%s", segmentSequence, SUFFIX));
+        return FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(SUFFIX)).sorted().toList();
+        }
+    }
+
+    private static long sequenceOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+    }
+
+    private static Map<String, Task> replay(List<Path> segments) throws IOException {
+        Map<String, Task> tasks = new HashMap<>();
+        for (int i = 0; i < segments.size(); i++) {
+            Path path = segments.get(i);
+            byte[] contents = Files.readAllBytes(path);
+            long cut = i < segments.size() - 1 ? cutOffset(segments.get(i + 1)) : -1;
+            int end = cut >= 0 && cut < contents.length ? (int) cut : contents.length;
+            int valid = replaySegment(ByteBuffer.wrap(contents, 0, end), tasks);
+            if (valid < end && i < segments.size() - 1) {
+                throw new IOException("Task log segment " + path.getFileName() + " is damaged at byte " + valid
+                        + "; the records after it would be lost");
+            }
+            if (valid < contents.length) {
+                logger.warn("Task log segment {} is damaged after byte {}; dropping {} bytes",
+                        path.getFileName(), valid, contents.length - valid);
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                    channel.truncate(valid);
+                }
+            }
+        }
+        return tasks;
+    }
+
+    /**
+     * @return the intact length of the previous segment if {@code segment} starts with a
+     * cut record, else {@code -1}
+     */
+    private static long cutOffset(Path segment) throws IOException {
+        ByteBuffer first = ByteBuffer.allocate(HEADER_BYTES + CUT_BYTES);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            while (first.hasRemaining() && channel.read(first) >= 0) {
+                // read the whole record
+            }
+        }
+        if (first.hasRemaining() || first.getInt(0) != CUT_BYTES || first.get(HEADER_BYTES) != CUT) {
+            return -1;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(first.array(), HEADER_BYTES, CUT_BYTES);
+        return (int) crc.getValue() == first.getInt(Integer.BYTES) ? first.getLong(HEADER_BYTES + 1) : -1;
+    }
+
+    /**
+     * @return the offset just past the last intact record
+     */
+    private static int replaySegment(ByteBuffer bytes, Map<String, Task> tasks) {
+        CRC32 crc = new CRC32();
+        while (bytes.remaining() >= HEADER_BYTES) {
+            int start = bytes.position();
+            int length = bytes.getInt();
+            int checksum = bytes.getInt();
+            if (length <= 0 || length > bytes.remaining()) {
+                return start;
+            }
+            crc.reset();
+            crc.update(bytes.array(), bytes.position(), length);
+            if ((int) crc.getValue() != checksum) {
+                return start;
+            }
+            ByteBuffer payload = ByteBuffer.wrap(bytes.array(), bytes.position(), length);
+            bytes.position(bytes.position() + length);
+            if (payload.get(payload.position()) == CUT) {
+                continue;
+            }
+            if (TaskCodec.isRemoval(payload)) {
+                TaskCodec.Removal removal = TaskCodec.decodeRemoval(payload);
+                Task known = tasks.get(removal.id());
+                if (known != null && known.getVersion() <= removal.version()) {
+                    tasks.remove(removal.id());
+                }
+                continue;
+            }
+            Task task = TaskCodec.decode(payload);
+            Task known = tasks.get(task.getId());
+            if (known == null || task.getVersion() == 0 || task.getVersion() > known.getVersion()) {
+                tasks.put(task.getId(), task);
+            }
+        }
+        return bytes.position();
+    }
+
+    /**
+     * A compaction in progress, see {@link TaskLog#compact()}.
+     */
+    public final class Compaction {
+
+        private Compaction() {
+        }
+
+        /**
+         * Write {@code task} into the snapshot.
+         */
+        public void add(Task task) {
+            enqueue(new Append(TaskCodec.encode(task), new CompletableFuture<>()));
+        }
+
+        /**
+         * Delete the segments from before the cut once the snapshot is on disk. Fails,
+         * keeping them, if a write failed since the cut.
+         */
+        public CompletableFuture<Void> finish() {
+            Seal seal = new Seal(new CompletableFuture<>());
+            enqueue(seal);
+            return seal.done();
+        }
+    }
+
+    private sealed interface Op permits Append, Roll, Seal, Flush, Shutdown {
+        CompletableFuture<Void> done();
+    }
+
+    private record Append(byte[] record, CompletableFuture<Void> done) implements Op {
+    }
+
+    private record Roll(CompletableFuture<Void> done) implements Op {
+    }
+
+    private record Seal(CompletableFuture<Void> done) implements Op {
+    }
+
+    private record Flush(CompletableFuture<Void> done) implements Op {
+    }
+
+    private enum Shutdown implements Op {
+        INSTANCE;
+
+        @Override
+        public CompletableFuture<Void> done() {
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+}
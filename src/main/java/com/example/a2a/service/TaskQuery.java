@@ -0,0 +1,36 @@
+package com.example.a2a.service;
+
+import com.example.a2a.model.Task;
+
+import java.time.Instant;
+
+/**
+ * Filter and page of a task listing. Every filter is optional; a time range includes
+ * its {@code from} bound and excludes its {@code to} bound. {@code cursor} is the
+ * {@code nextCursor} of the previous page of the same query.
+ */
+public record TaskQuery(Task.TaskState state,
+                        Instant createdFrom, Instant createdTo,
+                        Instant updatedFrom, Instant updatedTo,
+                        int limit, String cursor) {
+
+    public TaskQuery {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be at least 1");
+        }
+    }
+
+    boolean hasUpdatedRange() {
+        return updatedFrom != null || updatedTo != null;
+    }
+
+    boolean matches(Task task) {
+        return (state == null || task.getState() == state)
+                && within(task.getCreatedAt(), createdFrom, createdTo)
+                && within(task.getUpdatedAt(), updatedFrom, updatedTo);
+    }
+
+    private static boolean within(Instant instant, Instant from, Instant to) {
+        return (from == null || !instant.isBefore(from)) && (to == null || instant.isBefore(to));
+    }
+}
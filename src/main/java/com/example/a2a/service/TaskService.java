@@ -1,111 +1,742 @@
 package com.example.a2a.service;
 
+import com.example.a2a.model.IllegalTaskStateException;
 import com.example.a2a.model.Task;
+import com.example.a2a.model.TaskPage;
+import com.example.a2a.model.TaskText;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 
 @Service
-public class TaskService {
-    
-    private final Map<String, Task> tasks = new ConcurrentHashMap<>();
-    private final Map<String, TaskUpdateListener> listeners = new ConcurrentHashMap<>();
-    private final ScheduledExecutorService cleanupExecutor = Executors.newSingleThreadScheduledExecutor();
+public class TaskService implements AutoCloseable {
 
-    public TaskService() {
-        // Cleanup old tasks every 5 minutes
-        cleanupExecutor.scheduleAtFixedRate(this::cleanupOldTasks, 5, 5, TimeUnit.MINUTES);
+    private static final Logger logger = LoggerFactory.getLogger(TaskService.class);
+    private static final int WHEEL_SLOTS = 4096;
+    private static final int MIN_SHARD_WHEEL_SLOTS = 256;
+    private static final long SHUTDOWN_TIMEOUT_MS = 5_000;
+    private static final int STALLED_THREADS_PER_NOTIFY_THREAD = 8;
+
+    private final Shard[] shards;
+    private final int shardBits;
+    private final List<TaskIndex> indexes;
+    private final ScheduledExecutorService housekeeping;
+    private final ExecutorService notifyExecutor;
+    private final ExecutorService stalledNotifyExecutor;
+    private final Map<Task.TaskState, Long> retentionMs = new EnumMap<>(Task.TaskState.class);
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+    private final TaskLog taskLog;
+    private final OffHeapTextStore textStore;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    /**
+     * Terminal tasks are kept for the retention of their final state, then dropped by
+     * the expiry wheel, which is advanced every {@code expiryTickMs}. Before that, when
+     * their estimated weight exceeds {@code maxBytes}, the least recently used ones are
+     * evicted. Tasks that are not terminal are never evicted.
+     *
+     * <p>Listeners are notified on {@code notifyThreads} threads of their own, in order
+     * per task; changing a task never waits for its subscribers. A listener that stalls
+     * one of those threads is moved to a thread of its own, so it cannot hold up the
+     * notifications of other tasks, and moved back once it keeps up again. At most
+     * {@value #STALLED_THREADS_PER_NOTIFY_THREAD} such threads per notify thread exist;
+     * a stalled listener that finds none free, or stays stuck, is dropped.
+     *
+     * <p>The store is split into {@code shards} partitions by task id hash, rounded up to
+     * a power of two; zero means one per available processor. Each shard has its own
+     * task map, listener registry, submissions, expiry wheel and share of {@code maxBytes},
+     * so bursts on different tasks do not meet in one map, and its expiry runs as a task
+     * of its own on {@code housekeepingThreads} shared threads.
+     *
+     * <p>When a {@link TaskLog} is configured, the store starts from the tasks it
+     * recovered and every transition is appended to it before the call returns. With an
+     * {@link OffHeapTextStore}, results and artifact texts are kept off the heap and
+     * their storage is released when the task leaves the store.
+     */
+    @Autowired
+    public TaskService(@Value("${a2a.tasks.retention.completed-ms:3600000}") long completedRetentionMs,
+                       @Value("${a2a.tasks.retention.canceled-ms:3600000}") long canceledRetentionMs,
+                       @Value("${a2a.tasks.expiry-tick-ms:1000}") long expiryTickMs,
+                       @Value("${a2a.tasks.max-bytes:268435456}") long maxBytes,
+                       @Value("${a2a.tasks.notify-threads:4}") int notifyThreads,
+                       @Value("${a2a.tasks.shards:0}") int shards,
+                       @Value("${a2a.tasks.housekeeping-threads:2}") int housekeepingThreads,
+                       ObjectProvider<TaskLog> taskLog,
+                       ObjectProvider<OffHeapTextStore> textStore,
+                       MeterRegistry meterRegistry) {
+        this(completedRetentionMs, canceledRetentionMs, expiryTickMs, maxBytes, notifyThreads, shards,
+                housekeepingThreads, meterRegistry, taskLog.getIfAvailable(), textStore.getIfAvailable());
+    }
+
+    /**
+     * Wire a store by hand in tests; {@code taskLog} and {@code textStore} may be {@code null}.
+     */
+    TaskService(long completedRetentionMs, long canceledRetentionMs, long expiryTickMs, long maxBytes,
+                int notifyThreads, int shards, int housekeepingThreads, MeterRegistry meterRegistry,
+                TaskLog taskLog, OffHeapTextStore textStore) {
+        this.taskLog = taskLog;
+        this.textStore = textStore;
+        retentionMs.put(Task.TaskState.COMPLETED, completedRetentionMs);
+        retentionMs.put(Task.TaskState.CANCELED, canceledRetentionMs);
+        int requested = shards > 0 ? shards : Runtime.getRuntime().availableProcessors();
+        int shardCount = Integer.highestOneBit(Math.max(1, requested) * 2 - 1);
+        shardBits = Integer.numberOfTrailingZeros(shardCount);
+        long now = System.currentTimeMillis();
+        int wheelSlots = Math.max(MIN_SHARD_WHEEL_SLOTS, WHEEL_SLOTS / shardCount);
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            this.shards[i] = new Shard(i, new TaskExpiryWheel<>(expiryTickMs, wheelSlots, now),
+                    new TerminalTaskBudget(maxBytes / shardCount), meterRegistry);
+        }
+        List<TaskIndex> shardIndexes = new ArrayList<>(shardCount);
+        for (Shard shard : this.shards) {
+            shardIndexes.add(shard.index);
+        }
+        indexes = List.copyOf(shardIndexes);
+        notifyExecutor = Executors.newFixedThreadPool(notifyThreads, daemonThreads("task-notify-"));
+        stalledNotifyExecutor = new ThreadPoolExecutor(0, notifyThreads * STALLED_THREADS_PER_NOTIFY_THREAD,
+                60, TimeUnit.SECONDS, new SynchronousQueue<>(), daemonThreads("task-notify-stalled-"));
+        housekeeping = Executors.newScheduledThreadPool(housekeepingThreads, daemonThreads("task-housekeeping-"));
+        hits = Counter.builder("tasks.store.requests").tag("result", "hit")
+                .description("Task lookups").register(meterRegistry);
+        misses = Counter.builder("tasks.store.requests").tag("result", "miss")
+                .description("Task lookups").register(meterRegistry);
+        evictions = Counter.builder("tasks.store.evictions")
+                .description("Terminal tasks evicted to stay within the memory budget").register(meterRegistry);
+        Gauge.builder("tasks.store.estimated.bytes", this, TaskService::estimatedBytes)
+                .description("Estimated heap held by terminal tasks").baseUnit("bytes").register(meterRegistry);
+        Gauge.builder("tasks.store.size", this, TaskService::size)
+                .description("Tasks in the store").register(meterRegistry);
+        Gauge.builder("tasks.subscribers", this, TaskService::totalSubscribers)
+                .description("Listeners subscribed to task updates").register(meterRegistry);
+        if (taskLog != null) {
+            recover(taskLog);
+        }
+        // Shards expire on staggered ticks so they do not all wake the pool at once
+        for (Shard shard : this.shards) {
+            long offset = expiryTickMs * shard.number / shardCount;
+            Runnable expiry = () -> shard.expireTasks(System.currentTimeMillis());
+            housekeeping.scheduleAtFixedRate(logFailures("Task expiry", expiry),
+                    expiryTickMs + offset, expiryTickMs, TimeUnit.MILLISECONDS);
+        }
+        if (textStore != null) {
+            housekeeping.scheduleAtFixedRate(logFailures("Task text reclaim", textStore::reclaim),
+                    expiryTickMs, expiryTickMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Stop expiry and compaction, deliver the notifications already queued and flush
+     * the log. The store can still be read afterwards, but must not be changed.
+     */
+    @PreDestroy
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        housekeeping.shutdown();
+        notifyExecutor.shutdown();
+        try {
+            boolean terminated = housekeeping.awaitTermination(SHUTDOWN_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+                    && notifyExecutor.awaitTermination(SHUTDOWN_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            // Stalled listeners are handed off by the notify threads, so their pool goes last
+            stalledNotifyExecutor.shutdown();
+            if (!terminated || !stalledNotifyExecutor.awaitTermination(SHUTDOWN_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                logger.warn("Task housekeeping or notifications still running after {} ms", SHUTDOWN_TIMEOUT_MS);
+            }
+        } catch (InterruptedException e) {
+            stalledNotifyExecutor.shutdown();
+            Thread.currentThread().interrupt();
+        }
+        if (taskLog != null) {
+            try {
+                taskLog.flush().join();
+            } catch (RuntimeException e) {
+                logger.error("Task log flush on shutdown failed", e);
+            }
+        }
+    }
+
+    /**
+     * The threads that run expiry and compaction, for other bulk work on the store such
+     * as loading a snapshot.
+     */
+    Executor housekeepingExecutor() {
+        return housekeeping;
+    }
+
+    /**
+     * A periodic task that throws is never run again, so failures are logged instead.
+     */
+    private static Runnable logFailures(String name, Runnable task) {
+        return () -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                logger.error("{} failed", name, e);
+            }
+        };
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Route {@code id} by the top bits of its mixed hash; the shard's own map indexes by
+     * the low bits, so the keys of one shard still spread over all of its bins.
+     */
+    private Shard shardFor(String id) {
+        if (shardBits == 0) {
+            return shards[0];
+        }
+        return shards[(id.hashCode() * 0x9E3779B9) >>> (Integer.SIZE - shardBits)];
     }
 
     public Task createTask(String id) {
         Task task = new Task(id);
-        tasks.put(id, task);
+        Shard shard = shardFor(id);
+        Change change = new Change(shard);
+        long stamp = shard.creations.readLock();
+        try {
+            shard.tasks.compute(id, (key, current) -> change.apply(current, task));
+        } finally {
+            shard.creations.unlockRead(stamp);
+        }
+        if (change.previous != null) {
+            shard.budget.remove(id);
+            releaseTexts(change.previous);
+        }
         return task;
     }
 
+    /**
+     * Run {@code work} for task {@code id} at most once per message fingerprint.
+     * A repeat with the same id and fingerprint returns the stored task, waiting for
+     * the first caller if it is still computing. A different fingerprint replaces a
+     * finished submission and runs {@code work} again, but is refused while the first
+     * one is still running, so one id never has two computations at once. A failed
+     * submission is forgotten, so a retry recomputes.
+     *
+     * @throws TaskInProgressException if another message is being processed for {@code id}
+     */
+    public Task submitOnce(String id, String fingerprint, Supplier<Task> work) {
+        Shard shard = shardFor(id);
+        Submission mine = new Submission(fingerprint, new CompletableFuture<>());
+        while (true) {
+            Submission current = shard.submissions.compute(id, (key, existing) -> {
+                if (existing == null) {
+                    return mine;
+                }
+                if (existing.fingerprint().equals(fingerprint) || !existing.done().isDone()) {
+                    return existing;
+                }
+                return mine;
+            });
+            if (current == mine) {
+                break;
+            }
+            if (!current.fingerprint().equals(fingerprint)) {
+                throw new TaskInProgressException(id);
+            }
+            try {
+                current.done().join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+            Task task = shard.tasks.get(id);
+            if (task != null) {
+                return task;
+            }
+            // Expired or evicted after it was submitted: compute it again
+            shard.submissions.remove(id, current);
+        }
+        try {
+            Task task = work.get();
+            mine.done().complete(null);
+            return task;
+        } catch (RuntimeException e) {
+            shard.submissions.remove(id, mine);
+            mine.done().completeExceptionally(e);
+            throw e;
+        }
+    }
+
     public Task getTask(String id) {
-        return tasks.get(id);
+        Shard shard = shardFor(id);
+        Task task = shard.tasks.get(id);
+        if (task == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+            if (task.getState().isTerminal()) {
+                shard.budget.touch(id);
+            }
+        }
+        return task;
+    }
+
+    /**
+     * List the tasks matching {@code query} from the secondary indexes of all shards,
+     * merged in order.
+     *
+     * @throws IllegalArgumentException if the query's cursor is not valid for it
+     */
+    public TaskPage listTasks(TaskQuery query) {
+        return TaskIndex.list(indexes, query, id -> shardFor(id).tasks.get(id));
+    }
+
+    public Task setTaskWorking(String id) {
+        return transition(id, task -> task.getState().canTransitionTo(Task.TaskState.WORKING) ? task.working() : task);
+    }
+
+    /**
+     * Complete a task with {@code result}. A task that reached a terminal state first,
+     * e.g. by a concurrent cancel, keeps that state and is returned unchanged.
+     */
+    public Task completeTask(String id, String result) {
+        TaskText text = textStore != null ? textStore.store(result) : TaskText.of(result);
+        Task task;
+        try {
+            task = transition(id, current -> current.getState().canTransitionTo(Task.TaskState.COMPLETED)
+                    ? current.completed(text)
+                    : current);
+        } catch (RuntimeException e) {
+            if (text != null) {
+                text.release();
+            }
+            throw e;
+        }
+        if (text != null && (task == null || task.resultText() != text)) {
+            text.release();
+        }
+        return task;
+    }
+
+    /**
+     * @throws IllegalTaskStateException if the task is already completed or canceled
+     */
+    public Task cancelTask(String id) {
+        return transition(id, Task::canceled);
+    }
+
+    /**
+     * Replace the current snapshot of task {@code id} with {@code change} applied to it.
+     * Transitions of one task are serialized by the map's per-key compute and their
+     * listeners are queued inside it, so subscribers see the versions in order; readers
+     * never block and always see a whole snapshot.
+     *
+     * @return the task after the change, or {@code null} if there is no such task
+     */
+    private Task transition(String id, UnaryOperator<Task> transition) {
+        Shard shard = shardFor(id);
+        Change change = new Change(shard);
+        Task next = shard.tasks.computeIfPresent(id, (key, current) -> change.apply(current, transition.apply(current)));
+        if (next != null && next != change.previous && next.getState().isTerminal()) {
+            shard.retire(next);
+        }
+        return next;
+    }
+
+    /**
+     * Side effects of replacing one snapshot, run inside the map's compute so that the
+     * log, the indexes and the listeners receive a task's snapshots in the order they
+     * were made.
+     *
+     * <p>The record is logged before anything else sees the snapshot. With a synchronous
+     * log the compute waits for the record to be on disk, which group commit shares with
+     * the other tasks writing at the time. A failed write is thrown out of the compute,
+     * so the map, the indexes and the subscribers all stay at the previous snapshot.
+     */
+    private final class Change {
+        private final Shard shard;
+        private Task previous;
+
+        Change(Shard shard) {
+            this.shard = shard;
+        }
+
+        Task apply(Task current, Task next) {
+            previous = current;
+            if (next != current) {
+                if (taskLog != null) {
+                    awaitLogged(taskLog.append(next));
+                }
+                shard.transitions.increment();
+                shard.index.replace(current, next);
+                shard.notifyListeners(next);
+            }
+            return next;
+        }
+
+        private static void awaitLogged(CompletableFuture<Void> logged) {
+            try {
+                logged.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
     }
 
-    public void updateTask(Task task) {
-        tasks.put(task.getId(), task);
-        notifyListeners(task);
+    /**
+     * Expire the terminal tasks whose retention has passed at {@code nowMillis}, as the
+     * housekeeping schedule does with the current time.
+     */
+    void expireTasks(long nowMillis) {
+        for (Shard shard : shards) {
+            shard.expireTasks(nowMillis);
+        }
     }
 
-    public void setTaskWorking(String id) {
-        Task task = tasks.get(id);
-        if (task != null) {
-            task.setState(Task.TaskState.WORKING);
-            updateTask(task);
+    /**
+     * Load the tasks recovered from the log and compact it periodically, which drops
+     * the records of the tasks that expired or were evicted since the last compaction.
+     */
+    private void recover(TaskLog taskLog) {
+        for (Task task : taskLog.recoveredTasks().values()) {
+            load(task);
         }
+        long interval = taskLog.getCompactIntervalMs();
+        housekeeping.scheduleWithFixedDelay(logFailures("Task log compaction", this::compactLog),
+                interval, interval, TimeUnit.MILLISECONDS);
     }
 
-    public void completeTask(String id, String result) {
-        Task task = tasks.get(id);
-        if (task != null) {
-            task.setState(Task.TaskState.COMPLETED);
-            task.setResult(result);
-            
-            // Create artifact for the result
-            Task.Part part = new Task.Part("text", result);
-            Task.Artifact artifact = new Task.Artifact("response", List.of(part));
-            task.setArtifacts(List.of(artifact));
-            
-            updateTask(task);
+    /**
+     * Replace the log by a snapshot of the store, as the housekeeping schedule does.
+     *
+     * <p>The cut is taken while no task is being created, so every task whose first
+     * record precedes it is in its map by then. Each task is then read and written in a
+     * compute of its own, which orders its snapshot with its transitions in the log.
+     */
+    void compactLog() {
+        long[] stamps = new long[shards.length];
+        TaskLog.Compaction compaction;
+        for (int i = 0; i < shards.length; i++) {
+            stamps[i] = shards[i].creations.writeLock();
+        }
+        try {
+            compaction = taskLog.compact();
+        } finally {
+            for (int i = 0; i < shards.length; i++) {
+                shards[i].creations.unlockWrite(stamps[i]);
+            }
         }
+        for (Shard shard : shards) {
+            for (String id : shard.tasks.keySet()) {
+                shard.tasks.computeIfPresent(id, (key, task) -> {
+                    compaction.add(task);
+                    return task;
+                });
+            }
+        }
+        // A failed compaction is logged by the task log and retried on the next round
+        compaction.finish().exceptionally(e -> null).join();
     }
 
-    public void cancelTask(String id) {
-        Task task = tasks.get(id);
-        if (task != null) {
-            task.setState(Task.TaskState.CANCELED);
-            updateTask(task);
+    /**
+     * Put a task read back from disk into the store, unless its id is already taken.
+     * Terminal tasks are retired as usual, so those whose retention passed while the
+     * service was down expire on the next tick. Safe to call from several threads.
+     */
+    void load(Task task) {
+        Task stored = storeTexts(task);
+        Shard shard = shardFor(stored.getId());
+        Task current = shard.tasks.computeIfAbsent(stored.getId(), id -> {
+            shard.index.add(stored);
+            return stored;
+        });
+        if (current != stored) {
+            if (stored != task) {
+                releaseTexts(stored);
+            }
+            return;
+        }
+        if (stored.getState().isTerminal()) {
+            shard.retire(stored);
         }
     }
 
-    public boolean canSubscribe(String id) {
-        Task task = tasks.get(id);
-        return task != null && !listeners.containsKey(id);
+    /**
+     * The current tasks oldest first, merged from the creation indexes of the shards
+     * without locking.
+     * Loading tasks in this order appends to the indexes instead of inserting at random.
+     */
+    Iterable<Task> tasksByCreation() {
+        return () -> TaskIndex.byCreation(indexes, id -> shardFor(id).tasks.get(id));
     }
 
+    /**
+     * Subscribe to updates of a task. Any number of listeners may watch the same task.
+     */
     public void addListener(String taskId, TaskUpdateListener listener) {
-        listeners.put(taskId, listener);
+        Map<String, TaskListenerSet> listeners = shardFor(taskId).listeners;
+        while (true) {
+            TaskListenerSet set = listeners.computeIfAbsent(taskId, id -> new TaskListenerSet());
+            if (set.add(listener)) {
+                return;
+            }
+            listeners.remove(taskId, set);
+        }
+    }
+
+    /**
+     * Unsubscribe one listener; the task's other listeners keep receiving updates.
+     */
+    public void removeListener(String taskId, TaskUpdateListener listener) {
+        Map<String, TaskListenerSet> listeners = shardFor(taskId).listeners;
+        TaskListenerSet set = listeners.get(taskId);
+        if (set != null && set.remove(listener)) {
+            listeners.remove(taskId, set);
+        }
+    }
+
+    public int getSubscriberCount(String taskId) {
+        TaskListenerSet set = shardFor(taskId).listeners.get(taskId);
+        return set != null ? set.size() : 0;
     }
 
-    public void removeListener(String taskId) {
-        listeners.remove(taskId);
+    private double totalSubscribers() {
+        int total = 0;
+        for (Shard shard : shards) {
+            total += shard.subscribers();
+        }
+        return total;
+    }
+
+    long size() {
+        long size = 0;
+        for (Shard shard : shards) {
+            size += shard.tasks.size();
+        }
+        return size;
     }
 
-    private void notifyListeners(Task task) {
-        TaskUpdateListener listener = listeners.get(task.getId());
-        if (listener != null) {
-            listener.onTaskUpdate(task);
+    private double estimatedBytes() {
+        long bytes = 0;
+        for (Shard shard : shards) {
+            bytes += shard.budget.estimatedBytes();
         }
+        return bytes;
     }
 
-    private void cleanupOldTasks() {
-        Instant cutoff = Instant.now().minusSeconds(3600); // 1 hour old
-        tasks.entrySet().removeIf(entry -> {
-            Task task = entry.getValue();
-            boolean isOld = task.getUpdatedAt().isBefore(cutoff);
-            boolean isTerminal = task.getState() == Task.TaskState.COMPLETED 
-                || task.getState() == Task.TaskState.CANCELED;
-            if (isOld && isTerminal) {
-                listeners.remove(entry.getKey());
-                return true;
+    /**
+     * Move the result of a task read back from the log into the text store.
+     */
+    private Task storeTexts(Task task) {
+        if (textStore == null || task.resultText() == null) {
+            return task;
+        }
+        TaskText result = textStore.store(task.getResult());
+        List<Task.Artifact> artifacts = null;
+        if (task.getArtifacts() != null) {
+            artifacts = new ArrayList<>(task.getArtifacts().size());
+            for (Task.Artifact artifact : task.getArtifacts()) {
+                List<Task.Part> parts = new ArrayList<>(artifact.getParts().size());
+                for (Task.Part part : artifact.getParts()) {
+                    parts.add(part.textContent() == task.resultText() ? new Task.Part(part.getType(), result) : part);
+                }
+                artifacts.add(new Task.Artifact(artifact.getName(), parts));
             }
-            return false;
-        });
+            artifacts = List.copyOf(artifacts);
+        }
+        return Task.restore(task.getId(), task.getState(), result, artifacts,
+                task.getCreatedAt(), task.getUpdatedAt(), task.getVersion(), task.history());
+    }
+
+    /**
+     * Release the stored texts of a task that left the store. Only the terminal snapshot
+     * carries texts, and it is removed once, so no other snapshot in the store refers to
+     * them; readers still holding it keep reading the same text.
+     */
+    private static void releaseTexts(Task task) {
+        if (task.resultText() != null) {
+            task.resultText().release();
+        }
+        if (task.getArtifacts() != null) {
+            for (Task.Artifact artifact : task.getArtifacts()) {
+                for (Task.Part part : artifact.getParts()) {
+                    if (part.textContent() != null) {
+                        part.textContent().release();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * One partition of the store. Its maps see only the ids routed to it, and its expiry
+     * wheel is advanced by one housekeeping task at a time. Tagged gauges and counters per
+     * shard show how evenly the ids spread.
+     */
+    private final class Shard {
+        private final int number;
+        private final TaskIndex index = new TaskIndex();
+        private final Map<String, Task> tasks = new ConcurrentHashMap<>();
+        private final Map<String, TaskListenerSet> listeners = new ConcurrentHashMap<>();
+        private final Map<String, Submission> submissions = new ConcurrentHashMap<>();
+        /** Held shared while a task is created, exclusively while a log compaction starts. */
+        private final StampedLock creations = new StampedLock();
+        private final TaskExpiryWheel<String> expiryWheel;
+        private final TerminalTaskBudget budget;
+        private final Counter transitions;
+
+        Shard(int number, TaskExpiryWheel<String> expiryWheel, TerminalTaskBudget budget, MeterRegistry meterRegistry) {
+            this.number = number;
+            this.expiryWheel = expiryWheel;
+            this.budget = budget;
+            String shard = Integer.toString(number);
+            Gauge.builder("tasks.shard.size", tasks, Map::size).tag("shard", shard)
+                    .description("Tasks in one shard of the store").register(meterRegistry);
+            Gauge.builder("tasks.shard.subscribers", this, Shard::subscribers).tag("shard", shard)
+                    .description("Listeners subscribed to tasks of one shard").register(meterRegistry);
+            transitions = Counter.builder("tasks.shard.transitions").tag("shard", shard)
+                    .description("Task snapshots written in one shard").register(meterRegistry);
+        }
+
+        private int subscribers() {
+            int total = 0;
+            for (TaskListenerSet set : listeners.values()) {
+                total += set.size();
+            }
+            return total;
+        }
+
+        private void notifyListeners(Task task) {
+            TaskListenerSet set = listeners.get(task.getId());
+            if (set != null) {
+                set.publish(new TaskUpdate(task), notifyExecutor, stalledNotifyExecutor);
+            }
+        }
+
+        /**
+         * Track a task that reached a terminal state for expiry and for the memory budget.
+         * The wheel holds only the id, so an evicted task is not kept reachable until its
+         * retention would have passed.
+         */
+        private void retire(Task task) {
+            expiryWheel.schedule(task.getId(), expiresAt(task));
+            int evicted = budget.add(task.getId(), TaskWeigher.weigh(task), this::evict);
+            if (evicted > 0) {
+                evictions.increment(evicted);
+            }
+        }
+
+        private boolean evict(String id) {
+            Task task = tasks.get(id);
+            if (task == null || !task.getState().isTerminal() || !removeIfCurrent(task)) {
+                return false;
+            }
+            forget(id);
+            releaseTexts(task);
+            return true;
+        }
+
+        /**
+         * Synchronized so that {@link TaskService#expireTasks(long)} may run next to the
+         * housekeeping schedule.
+         */
+        private synchronized void expireTasks(long nowMillis) {
+            expiryWheel.advance(nowMillis, id -> {
+                // The task may have been evicted since, or superseded by a newer one under
+                // the same id that has an entry of its own
+                Task task = tasks.get(id);
+                if (task != null && task.getState().isTerminal() && expiresAt(task) <= nowMillis
+                        && removeIfCurrent(task)) {
+                    budget.remove(task.getId());
+                    forget(task.getId());
+                    releaseTexts(task);
+                }
+            });
+        }
+
+        private long expiresAt(Task task) {
+            return task.updatedAtMillis() + retentionMs.get(task.getState());
+        }
+
+        /**
+         * Remove {@code task} if it is still the current snapshot of its id, together
+         * with its index entries in the same per-key compute. The removal is logged there
+         * too, so replay does not bring the task back. It is not waited for: a lost
+         * removal only brings the task back until it expires or is evicted again.
+         */
+        private boolean removeIfCurrent(Task task) {
+            AtomicBoolean removed = new AtomicBoolean();
+            tasks.computeIfPresent(task.getId(), (id, current) -> {
+                if (current != task) {
+                    return current;
+                }
+                if (taskLog != null) {
+                    taskLog.appendRemoval(current);
+                }
+                index.remove(current);
+                removed.set(true);
+                return null;
+            });
+            return removed.get();
+        }
+
+        private void forget(String id) {
+            TaskListenerSet set = listeners.remove(id);
+            if (set != null) {
+                set.close();
+            }
+            submissions.remove(id);
+        }
+    }
+
+    /**
+     * What a repeated send needs to find its answer: the message fingerprint and when the
+     * first computation is done. The task itself is read from the shard, so a submission
+     * never keeps a snapshot or its texts reachable.
+     */
+    private record Submission(String fingerprint, CompletableFuture<Void> done) {
     }
 
     @FunctionalInterface
     public interface TaskUpdateListener {
-        void onTaskUpdate(Task task);
+        void onTaskUpdate(TaskUpdate update);
+
+        /**
+         * Called once the listener has been unsubscribed because it stalled for too long
+         * or no thread was free to wait on it; it receives no further updates.
+         */
+        default void onDropped() {
+        }
     }
 }
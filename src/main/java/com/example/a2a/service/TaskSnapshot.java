@@ -0,0 +1,271 @@
+package com.example.a2a.service;
+
+import com.example.a2a.model.Task;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32C;
+
+/**
+ * Point-in-time copy of the task store in one file, for a warm restart without a
+ * {@link TaskLog}.
+ *
+ * <p>The file is {@code [magic][version]}, then the tasks as
+ * {@code [length][crc32c][payload]} records in the {@link TaskCodec} form, and a footer
+ * with the offset of every chunk of {@value #CHUNK_RECORDS} records. Writing walks the
+ * store's creation index, which is never locked, and streams the tasks oldest first
+ * through one direct buffer into a temporary file that replaces the snapshot only once
+ * it is synced, so a crash mid-write leaves the previous snapshot in place.
+ *
+ * <p>{@link #recover()} memory-maps the chunks and decodes them straight into the store
+ * on the store's housekeeping threads; each chunk covers its own span of creation
+ * times, so the threads extend the indexes at different places. The snapshot is only
+ * loaded into an empty store, so a store already rebuilt from its log is left alone.
+ * From then on it is written every {@code intervalMs} and once more on {@link #close()}.
+ */
+public class TaskSnapshot implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskSnapshot.class);
+    private static final int MAGIC = 0x41325453;
+    private static final int FORMAT_VERSION = 1;
+    private static final int FILE_HEADER_BYTES = 8;
+    private static final int RECORD_HEADER_BYTES = 8;
+    private static final int CHUNK_RECORDS = 8192;
+    private static final int BUFFER_BYTES = 1 << 20;
+
+    private final Path file;
+    private final long intervalMs;
+    private final TaskService taskService;
+    private final ScheduledExecutorService scheduler;
+    private final Object writeLock = new Object();
+    private final AtomicBoolean recovered = new AtomicBoolean();
+    private volatile boolean closed;
+
+    public TaskSnapshot(Path file, long intervalMs, TaskService taskService) {
+        this.file = file;
+        this.intervalMs = intervalMs;
+        this.taskService = taskService;
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "task-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Load the snapshot into the store if the store is empty, then start the periodic
+     * writes. Nothing is written before this, so a snapshot cannot be replaced by an
+     * empty store that was never loaded from it.
+     *
+     * @return the number of tasks loaded
+     */
+    public long recover() {
+        if (!recovered.compareAndSet(false, true)) {
+            throw new IllegalStateException("Task snapshot " + file + " was already recovered");
+        }
+        long loaded = taskService.size() == 0 && Files.exists(file) ? load() : 0;
+        scheduler.scheduleWithFixedDelay(this::writeQuietly, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        return loaded;
+    }
+
+    /**
+     * Write the store's current tasks over the previous snapshot.
+     *
+     * @return the number of tasks written
+     */
+    public long write() throws IOException {
+        synchronized (writeLock) {
+            long started = System.nanoTime();
+            Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            long count = 0;
+            List<Long> chunks = new ArrayList<>();
+            CRC32C crc = new CRC32C();
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+                buffer.putInt(MAGIC).putInt(FORMAT_VERSION);
+                long position = FILE_HEADER_BYTES;
+                for (Task task : taskService.tasksByCreation()) {
+                    if (count % CHUNK_RECORDS == 0) {
+                        chunks.add(position);
+                    }
+                    byte[] record = TaskCodec.encode(task);
+                    crc.reset();
+                    crc.update(record);
+                    if (buffer.remaining() < RECORD_HEADER_BYTES + record.length) {
+                        flush(channel, buffer);
+                    }
+                    buffer.putInt(record.length).putInt((int) crc.getValue());
+                    if (buffer.remaining() < record.length) {
+                        flush(channel, buffer);
+                        writeFully(channel, ByteBuffer.wrap(record));
+                    } else {
+                        buffer.put(record);
+                    }
+                    position += RECORD_HEADER_BYTES + record.length;
+                    count++;
+                }
+                for (long chunk : chunks) {
+                    putFooter(channel, buffer, 8).putLong(chunk);
+                }
+                putFooter(channel, buffer, 16).putLong(count).putInt(chunks.size()).putInt(MAGIC);
+                flush(channel, buffer);
+                channel.force(true);
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.info("Wrote {} tasks to snapshot {} in {} ms", count, file,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            return count;
+        }
+    }
+
+    /**
+     * Stop the schedule and write a last snapshot, unless the store was never
+     * {@linkplain #recover() recovered} from the file.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        // Not shutdownNow: an interrupt would close the channel under a running write
+        scheduler.shutdown();
+        if (recovered.get()) {
+            write();
+        }
+    }
+
+    private void writeQuietly() {
+        try {
+            write();
+        } catch (IOException | RuntimeException e) {
+            logger.error("Task snapshot write failed", e);
+        }
+    }
+
+    private long load() {
+        long started = System.nanoTime();
+        AtomicLong loaded = new AtomicLong();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_BYTES);
+            ByteBuffer trailer = ByteBuffer.allocate(16);
+            if (size < FILE_HEADER_BYTES + trailer.capacity()
+                    || channel.read(header, 0) != FILE_HEADER_BYTES
+                    || channel.read(trailer, size - trailer.capacity()) != trailer.capacity()) {
+                throw new IOException("Snapshot is truncated");
+            }
+            header.flip();
+            trailer.flip();
+            long count = trailer.getLong();
+            int chunkCount = trailer.getInt();
+            long recordsEnd = size - trailer.capacity() - 8L * chunkCount;
+            if (header.getInt() != MAGIC || header.getInt() != FORMAT_VERSION || trailer.getInt() != MAGIC
+                    || chunkCount < 0 || count < 0 || recordsEnd < FILE_HEADER_BYTES) {
+                throw new IOException("Not a task snapshot of a known format");
+            }
+            ByteBuffer offsets = ByteBuffer.allocate(8 * chunkCount);
+            channel.read(offsets, recordsEnd);
+            offsets.flip();
+            long[] starts = new long[chunkCount + 1];
+            for (int i = 0; i < chunkCount; i++) {
+                starts[i] = offsets.getLong();
+            }
+            starts[chunkCount] = recordsEnd;
+
+            CompletableFuture<?>[] chunks = new CompletableFuture<?>[chunkCount];
+            for (int i = 0; i < chunkCount; i++) {
+                long start = starts[i];
+                long end = starts[i + 1];
+                chunks[i] = CompletableFuture.runAsync(() -> loaded.addAndGet(loadChunk(channel, start, end)),
+                        taskService.housekeepingExecutor());
+            }
+            CompletableFuture.allOf(chunks).join();
+            logger.info("Loaded {} of {} tasks from snapshot {} in {} ms", loaded.get(), count, file,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Task snapshot {} could not be loaded; starting with what was read", file, e);
+        }
+        return loaded.get();
+    }
+
+    /**
+     * @return the number of tasks read from the chunk; a damaged record ends the chunk
+     */
+    private long loadChunk(FileChannel channel, long start, long end) {
+        MappedByteBuffer chunk;
+        try {
+            chunk = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        } catch (IOException e) {
+            logger.warn("Task snapshot chunk at byte {} could not be mapped", start, e);
+            return 0;
+        }
+        chunk.order(ByteOrder.BIG_ENDIAN);
+        CRC32C crc = new CRC32C();
+        long loaded = 0;
+        while (chunk.remaining() >= RECORD_HEADER_BYTES) {
+            int length = chunk.getInt();
+            int checksum = chunk.getInt();
+            if (length < 0 || length > chunk.remaining()) {
+                break;
+            }
+            ByteBuffer record = chunk.slice(chunk.position(), length);
+            crc.reset();
+            crc.update(record.duplicate());
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+            taskService.load(TaskCodec.decode(record));
+            chunk.position(chunk.position() + length);
+            loaded++;
+        }
+        if (chunk.hasRemaining()) {
+            logger.warn("Task snapshot chunk at byte {} is damaged; skipped the rest of it", start);
+        }
+        return loaded;
+    }
+
+    /**
+     * Make room for a footer entry of {@code bytes} and return the buffer to put it in.
+     */
+    private static ByteBuffer putFooter(FileChannel channel, ByteBuffer buffer, int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush(channel, buffer);
+        }
+        return buffer;
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        writeFully(channel, buffer);
+        buffer.clear();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.a2a.service;
+
+import com.example.a2a.model.Task;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * One state change of a task, as delivered to every listener of the task.
+ *
+ * <p>The update carries the immutable snapshot the change produced. Listeners that
+ * need a wire form call {@link #encoded(Encoding)} with an {@link Encoding} they share:
+ * the first call runs its encoder and every other listener asking for the same encoding
+ * reuses the output, so a change is serialized once per wire form however many
+ * subscribers it fans out to.
+ */
+public final class TaskUpdate {
+
+    private static final Object[] NONE = {};
+
+    private final Task task;
+    /** Pairs of an encoding and its output; replaced under the update's lock. */
+    private volatile Object[] encoded = NONE;
+
+    TaskUpdate(Task task) {
+        this.task = task;
+    }
+
+    public Task getTask() { return task; }
+    public String getTaskId() { return task.getId(); }
+    public Task.TaskState getState() { return task.getState(); }
+    public String getResult() { return task.getResult(); }
+    public long getVersion() { return task.getVersion(); }
+
+    /**
+     * @return the output of {@code encoding} for this update, computed on first use
+     */
+    public <T> T encoded(Encoding<T> encoding) {
+        T value = find(encoded, encoding);
+        if (value != null) {
+            return value;
+        }
+        synchronized (this) {
+            Object[] current = encoded;
+            value = find(current, encoding);
+            if (value == null) {
+                value = Objects.requireNonNull(encoding.encoder.apply(this), "encoded update");
+                Object[] next = Arrays.copyOf(current, current.length + 2);
+                next[current.length] = encoding;
+                next[current.length + 1] = value;
+                encoded = next;
+            }
+            return value;
+        }
+    }
+
+    @SuppressWarnings("unchecked") // an output is only stored next to the encoding that produced it
+    private static <T> T find(Object[] encoded, Encoding<T> encoding) {
+        for (int i = 0; i < encoded.length; i += 2) {
+            if (encoded[i] == encoding) {
+                return (T) encoded[i + 1];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * One wire form of task updates. Its identity is the cache key, so listeners that
+     * want the same form share one instance.
+     */
+    public static final class Encoding<T> {
+
+        private final Function<TaskUpdate, T> encoder;
+
+        public Encoding(Function<TaskUpdate, T> encoder) {
+            this.encoder = encoder;
+        }
+    }
+}
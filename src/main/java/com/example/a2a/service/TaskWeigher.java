@@ -0,0 +1,46 @@
+package com.example.a2a.service;
+
+import com.example.a2a.model.Task;
+import com.example.a2a.model.TaskText;
+
+/**
+ * Rough retained-memory estimate of a {@link Task}, used to enforce the task store's
+ * memory budget. Texts count with their {@link TaskText#footprint() footprint}, on or
+ * off the heap. Artifacts derived from the result are not stored and cost nothing; a
+ * stored part holding the result instance is not counted twice.
+ */
+final class TaskWeigher {
+
+    private static final long TASK_OVERHEAD = 48;
+    private static final long ARTIFACT_OVERHEAD = 64;
+    private static final long PART_OVERHEAD = 48;
+    private static final long STRING_OVERHEAD = 40;
+    private static final long HISTORY_OVERHEAD = 16;
+
+    private TaskWeigher() {}
+
+    static long weigh(Task task) {
+        long bytes = TASK_OVERHEAD + stringBytes(task.getId()) + textBytes(task.resultText())
+                + HISTORY_OVERHEAD + 8L * task.history().size();
+        if (task.getArtifacts() != null && !task.artifactsDerived()) {
+            for (Task.Artifact artifact : task.getArtifacts()) {
+                bytes += ARTIFACT_OVERHEAD + stringBytes(artifact.getName());
+                for (Task.Part part : artifact.getParts()) {
+                    bytes += PART_OVERHEAD + stringBytes(part.getType());
+                    if (part.textContent() != task.resultText()) {
+                        bytes += textBytes(part.textContent());
+                    }
+                }
+            }
+        }
+        return bytes;
+    }
+
+    private static long textBytes(TaskText text) {
+        return text == null ? 0 : text.footprint();
+    }
+
+    private static long stringBytes(String value) {
+        return value == null ? 0 : STRING_OVERHEAD + 2L * value.length();
+    }
+}
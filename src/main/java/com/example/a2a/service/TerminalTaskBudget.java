@@ -0,0 +1,86 @@
+package com.example.a2a.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+/**
+ * Memory budget over the terminal tasks of the store, evicting in LRU order.
+ *
+ * <p>Only tasks that reached a terminal state are tracked: they hold the results and
+ * artifacts that make up the store's weight, and they are the only ones that may be
+ * evicted. Reads reorder the LRU only when the lock is free, so a busy lock costs a
+ * lost recency update instead of a blocked {@code tasks/get}.
+ */
+class TerminalTaskBudget {
+
+    private final long maxBytes;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<String, Long> weights = new LinkedHashMap<>(256, 0.75f, true);
+    private final AtomicLong estimatedBytes = new AtomicLong();
+
+    TerminalTaskBudget(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Track a task that became terminal and evict least recently used tasks until the
+     * budget holds again. The task just added is never chosen.
+     *
+     * @param evict removes a victim from the store; returns {@code false} if the id no
+     *              longer holds a terminal task, in which case it is only untracked
+     * @return the number of tasks evicted
+     */
+    int add(String id, long weight, Predicate<String> evict) {
+        lock.lock();
+        try {
+            Long previous = weights.put(id, weight);
+            long bytes = estimatedBytes.addAndGet(weight - (previous != null ? previous : 0));
+            int evicted = 0;
+            Iterator<Map.Entry<String, Long>> eldest = weights.entrySet().iterator();
+            while (bytes > maxBytes && eldest.hasNext()) {
+                Map.Entry<String, Long> entry = eldest.next();
+                if (entry.getKey().equals(id)) {
+                    break;
+                }
+                eldest.remove();
+                bytes = estimatedBytes.addAndGet(-entry.getValue());
+                if (evict.test(entry.getKey())) {
+                    evicted++;
+                }
+            }
+            return evicted;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void remove(String id) {
+        lock.lock();
+        try {
+            Long previous = weights.remove(id);
+            if (previous != null) {
+                estimatedBytes.addAndGet(-previous);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void touch(String id) {
+        if (lock.tryLock()) {
+            try {
+                weights.get(id);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    long estimatedBytes() {
+        return estimatedBytes.get();
+    }
+}
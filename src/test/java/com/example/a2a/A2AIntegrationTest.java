@@ -1,12 +1,33 @@
 package com.example.a2a;
 
+import com.example.a2a.jsonrpc.JsonRpcCall;
+import com.example.a2a.jsonrpc.JsonRpcDispatcher;
+import com.example.a2a.jsonrpc.JsonRpcInvoker;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -21,6 +42,9 @@ public class A2AIntegrationTest {
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private JsonRpcDispatcher dispatcher;
+
     @Test
     void healthCheck_shouldReturnOk() throws Exception {
         mockMvc.perform(get("/health"))
@@ -38,6 +62,35 @@ public class A2AIntegrationTest {
                 .andExpect(jsonPath("$.capabilities.streaming").value(true));
     }
 
+    @Test
+    void agentCard_shouldReturnNotModifiedForMatchingEtag() throws Exception {
+        MvcResult first = mockMvc.perform(get("/.well-known/agent-card.json"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(header().string("Cache-Control", org.hamcrest.Matchers.containsString("max-age=")))
+                .andReturn();
+        String etag = first.getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/card").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag));
+    }
+
+    @Test
+    void agentCard_shouldServeGzipVariant() throws Exception {
+        MvcResult plain = mockMvc.perform(get("/.well-known/agent-card.json")).andReturn();
+        MvcResult gzip = mockMvc.perform(get("/.well-known/agent-card.json").header("Accept-Encoding", "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andReturn();
+
+        assertNotEquals(plain.getResponse().getHeader("ETag"), gzip.getResponse().getHeader("ETag"));
+        try (GZIPInputStream in = new GZIPInputStream(
+                new ByteArrayInputStream(gzip.getResponse().getContentAsByteArray()))) {
+            assertArrayEquals(plain.getResponse().getContentAsByteArray(), in.readAllBytes());
+        }
+    }
+
     @Test
     void tasksSend_shouldProcessWeatherRequest() throws Exception {
         String request = """
@@ -101,6 +154,38 @@ public class A2AIntegrationTest {
                 .andExpect(jsonPath("$.result.status.state").value("completed"));
     }
 
+    @Test
+    void messageSend_shouldReturnStoredTaskOnRetry() throws Exception {
+        String request = """
+            {
+              "jsonrpc": "2.0",
+              "id": "test-idem-001",
+              "method": "message/send",
+              "params": {
+                "id": "task-idem-001",
+                "message": {
+                  "role": "user",
+                  "parts": [{"type": "text", "text": "What's the weather in Paris?"}]
+                }
+              }
+            }
+            """;
+
+        MvcResult first = performJsonRpc(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result.status.state").value("completed"))
+                .andReturn();
+        MvcResult retry = performJsonRpc(request)
+                .andExpect(status().isOk())
+                .andReturn();
+
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode original = mapper.readTree(first.getResponse().getContentAsString()).path("result");
+        JsonNode repeated = mapper.readTree(retry.getResponse().getContentAsString()).path("result");
+        assertEquals(original.path("createdAt").asText(), repeated.path("createdAt").asText());
+        assertEquals(original.path("updatedAt").asText(), repeated.path("updatedAt").asText());
+    }
+
     @Test
     void tasksGet_shouldReturnTaskStatus() throws Exception {
         // First create a task
@@ -241,4 +326,317 @@ public class A2AIntegrationTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.result.artifacts[0].parts[0].text").value(org.hamcrest.Matchers.containsString("Weather Agent")));
     }
+
+    @Test
+    void batchRequest_shouldReturnResponsesInOrder() throws Exception {
+        String request = """
+            [
+              {
+                "jsonrpc": "2.0",
+                "id": "batch-001",
+                "method": "tasks/send",
+                "params": {
+                  "id": "task-batch-001",
+                  "message": {
+                    "role": "user",
+                    "parts": [
+                      {
+                        "kind": "text",
+                        "text": "Weather in Rome"
+                      }
+                    ]
+                  }
+                }
+              },
+              {
+                "jsonrpc": "2.0",
+                "id": "batch-002",
+                "method": "tasks/unknown",
+                "params": {}
+              },
+              {
+                "jsonrpc": "2.0",
+                "id": "batch-003",
+                "method": "tasks/get",
+                "params": {
+                  "id": "task-missing"
+                }
+              }
+            ]
+            """;
+
+        performJsonRpc(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].id").value("batch-001"))
+                .andExpect(jsonPath("$[0].result.status.state").value("completed"))
+                .andExpect(jsonPath("$[1].id").value("batch-002"))
+                .andExpect(jsonPath("$[1].error.code").value(-32601))
+                .andExpect(jsonPath("$[2].id").value("batch-003"))
+                .andExpect(jsonPath("$[2].error.code").value(-32000));
+    }
+
+    @Test
+    void emptyBatch_shouldReturnInvalidRequest() throws Exception {
+        mockMvc.perform(post("/")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.error.code").value(-32600));
+    }
+
+    @Test
+    void paramsBeforeMethod_shouldStillBind() throws Exception {
+        String request = """
+            {
+              "params": {
+                "message": {
+                  "parts": [
+                    {"text": "What's the weather ", "kind": "text"},
+                    {"kind": "file", "file": {"uri": "file:///ignored"}},
+                    {"kind": "text", "text": "in Madrid?"}
+                  ],
+                  "role": "user"
+                },
+                "id": "task-order-001"
+              },
+              "method": "message/send",
+              "id": "test-order-001",
+              "jsonrpc": "2.0"
+            }
+            """;
+
+        mockMvc.perform(post("/")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(request))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value("test-order-001"))
+                .andExpect(jsonPath("$.result.id").value("task-order-001"))
+                .andExpect(jsonPath("$.result.artifacts[0].parts[0].text").value(org.hamcrest.Matchers.containsString("Madrid")));
+    }
+
+    @Test
+    void malformedJson_shouldReturnParseError() throws Exception {
+        mockMvc.perform(post("/")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"jsonrpc\": \"2.0\", \"method\": "))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.error.code").value(-32700));
+    }
+
+    @Test
+    void notification_shouldBeAcceptedWithoutBody() throws Exception {
+        String request = """
+            {
+              "jsonrpc": "2.0",
+              "method": "message/send",
+              "params": {
+                "id": "task-notify-001",
+                "message": {
+                  "role": "user",
+                  "parts": [
+                    {
+                      "kind": "text",
+                      "text": "Weather in Oslo"
+                    }
+                  ]
+                }
+              }
+            }
+            """;
+
+        mockMvc.perform(post("/")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(request))
+                .andExpect(status().isAccepted())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void batchWithNotification_shouldOmitNotificationResponse() throws Exception {
+        String request = """
+            [
+              {
+                "jsonrpc": "2.0",
+                "method": "tasks/get",
+                "params": {"id": "task-missing"}
+              },
+              {
+                "jsonrpc": "2.0",
+                "id": "batch-notify-002",
+                "method": "tasks/get",
+                "params": {"id": "task-missing"}
+              }
+            ]
+            """;
+
+        performJsonRpc(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value("batch-notify-002"));
+    }
+
+    @Test
+    void asyncMethod_shouldCompleteThroughServletAsync() throws Exception {
+        dispatcher.register(new JsonRpcInvoker() {
+            @Override
+            public List<String> methodNames() {
+                return List.of("test/async");
+            }
+
+            @Override
+            public JsonRpcCall bind(String methodName, JsonParser params) throws IOException {
+                if (params != null) {
+                    params.skipChildren();
+                }
+                return () -> CompletableFuture.supplyAsync(() -> "pong",
+                        CompletableFuture.delayedExecutor(50, TimeUnit.MILLISECONDS));
+            }
+        });
+
+        String request = """
+            {
+              "jsonrpc": "2.0",
+              "id": "test-async-001",
+              "method": "test/async",
+              "params": {}
+            }
+            """;
+
+        MvcResult result = mockMvc.perform(post("/")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(request))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value("test-async-001"))
+                .andExpect(jsonPath("$.result").value("pong"));
+    }
+
+    @Test
+    void cborRequest_shouldReturnCborResponse() throws Exception {
+        String json = """
+            {
+              "jsonrpc": "2.0",
+              "id": "test-cbor-001",
+              "method": "message/send",
+              "params": {
+                "id": "task-cbor-001",
+                "message": {
+                  "role": "user",
+                  "parts": [{"type": "text", "text": "What's the weather in Berlin?"}]
+                }
+              }
+            }
+            """;
+        ObjectMapper cbor = new ObjectMapper(new CBORFactory());
+        byte[] request = cbor.writeValueAsBytes(new ObjectMapper().readTree(json));
+
+        MvcResult result = mockMvc.perform(post("/")
+                .contentType(MediaType.APPLICATION_CBOR)
+                .accept(MediaType.APPLICATION_CBOR)
+                .content(request))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn();
+
+        JsonNode response = cbor.readTree(result.getResponse().getContentAsByteArray());
+        assertEquals("test-cbor-001", response.path("id").asText());
+        assertEquals("task-cbor-001", response.path("result").path("id").asText());
+        assertTrue(response.path("result").path("artifacts").path(0).path("parts").path(0)
+                .path("text").asText().contains("Berlin"));
+    }
+
+    @Test
+    void cborRequest_withoutAccept_shouldReturnCborResponse() throws Exception {
+        ObjectMapper cbor = new ObjectMapper(new CBORFactory());
+        byte[] request = cbor.writeValueAsBytes(new ObjectMapper().readTree("""
+            {"jsonrpc": "2.0", "id": "test-cbor-002", "method": "tasks/get", "params": {"id": "task-missing"}}
+            """));
+
+        MvcResult result = mockMvc.perform(post("/")
+                .contentType(MediaType.APPLICATION_CBOR)
+                .content(request))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn();
+
+        JsonNode response = cbor.readTree(result.getResponse().getContentAsByteArray());
+        assertEquals("test-cbor-002", response.path("id").asText());
+        assertEquals(-32000, response.path("error").path("code").asInt());
+    }
+
+    @Test
+    void cborRequest_acceptingJson_shouldReturnJsonResponse() throws Exception {
+        ObjectMapper cbor = new ObjectMapper(new CBORFactory());
+        byte[] request = cbor.writeValueAsBytes(new ObjectMapper().readTree("""
+            {"jsonrpc": "2.0", "id": "test-cbor-003", "method": "tasks/get", "params": {"id": "task-missing"}}
+            """));
+
+        mockMvc.perform(post("/")
+                .contentType(MediaType.APPLICATION_CBOR)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(request))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.id").value("test-cbor-003"));
+    }
+
+    @Test
+    void jsonRequest_withMalformedAccept_shouldReturnJsonResponse() throws Exception {
+        mockMvc.perform(post("/")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.ACCEPT, "application/")
+                .content("""
+                    {"jsonrpc": "2.0", "id": "test-accept-001", "method": "tasks/get", "params": {"id": "task-missing"}}
+                    """))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.id").value("test-accept-001"));
+    }
+
+    @Test
+    void ndjsonPipeline_shouldStreamResponsesCorrelatedById() throws Exception {
+        String body = String.join("\n",
+                "{\"jsonrpc\":\"2.0\",\"id\":\"pipe-001\",\"method\":\"message/send\",\"params\":{\"id\":\"task-pipe-001\",\"message\":{\"role\":\"user\",\"parts\":[{\"type\":\"text\",\"text\":\"Weather in Rome?\"}]}}}",
+                "{\"jsonrpc\":\"2.0\",\"method\":\"tasks/get\",\"params\":{\"id\":\"task-missing\"}}",
+                "{\"jsonrpc\":\"2.0\",\"id\":\"pipe-002\",\"method\":\"tasks/get\",\"params\":{\"id\":\"task-missing\"}}",
+                "{\"jsonrpc\":\"2.0\",\"id\":\"pipe-003\",\"method\":\"no/such\"}") + "\n";
+
+        MvcResult result = mockMvc.perform(post("/")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .content(body))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        result.getAsyncResult(10_000);
+
+        ObjectMapper mapper = new ObjectMapper();
+        Map<String, JsonNode> responses = new HashMap<>();
+        for (String line : result.getResponse().getContentAsString().split("\n")) {
+            JsonNode response = mapper.readTree(line);
+            responses.put(response.path("id").asText(), response);
+        }
+        assertEquals(Set.of("pipe-001", "pipe-002", "pipe-003"), responses.keySet());
+        assertEquals("task-pipe-001", responses.get("pipe-001").path("result").path("id").asText());
+        assertEquals(-32000, responses.get("pipe-002").path("error").path("code").asInt());
+        assertEquals(-32601, responses.get("pipe-003").path("error").path("code").asInt());
+    }
+
+    /**
+     * Perform a JSON-RPC POST, following servlet async dispatch when the
+     * response is completed asynchronously (batches, async methods).
+     */
+    private ResultActions performJsonRpc(String body) throws Exception {
+        ResultActions actions = mockMvc.perform(post("/")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body));
+        MvcResult result = actions.andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            return mockMvc.perform(asyncDispatch(result));
+        }
+        return actions;
+    }
 }
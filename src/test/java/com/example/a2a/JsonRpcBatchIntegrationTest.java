@@ -0,0 +1,173 @@
+package com.example.a2a;
+
+import com.example.a2a.jsonrpc.JsonRpcBulkhead;
+import com.example.a2a.jsonrpc.JsonRpcCall;
+import com.example.a2a.jsonrpc.JsonRpcDispatcher;
+import com.example.a2a.jsonrpc.JsonRpcInvoker;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Batch limits of the JSON-RPC endpoint, run on the real bounded batch executor: two
+ * threads and one queued entry, at most four entries per batch and a short deadline.
+ */
+@SpringBootTest(properties = {
+        "a2a.jsonrpc.batch.max-size=4",
+        "a2a.jsonrpc.batch.timeout-ms=500",
+        "a2a.jsonrpc.batch.threads=2",
+        "a2a.jsonrpc.batch.queue-capacity=1"
+})
+@AutoConfigureMockMvc
+class JsonRpcBatchIntegrationTest {
+
+    private static final String MISSING_TASK = """
+            {"jsonrpc": "2.0", "id": "get", "method": "tasks/get", "params": {"id": "task-missing"}}""";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JsonRpcDispatcher dispatcher;
+
+    @Autowired
+    @Qualifier("jsonRpcBatchExecutor")
+    private ExecutorService batchExecutor;
+
+    /**
+     * Workers of an earlier test may still be returning to the pool after its response
+     * was written; each test starts with both threads and the queue slot free.
+     */
+    @BeforeEach
+    void awaitIdleExecutor() throws InterruptedException {
+        ThreadPoolExecutor executor = (ThreadPoolExecutor) batchExecutor;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (executor.getActiveCount() > 0 || !executor.getQueue().isEmpty()) {
+            assertTrue(System.nanoTime() < deadline, "batch executor still busy");
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    void batch_shouldRejectMoreEntriesThanTheLimit() throws Exception {
+        String request = "[" + String.join(",", MISSING_TASK, MISSING_TASK, MISSING_TASK, MISSING_TASK, MISSING_TASK) + "]";
+
+        mockMvc.perform(post("/")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(request))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.error.code").value(-32600))
+                .andExpect(jsonPath("$.error.message").value("Invalid Request: batch exceeds 4 entries"));
+    }
+
+    @Test
+    void batch_shouldAnswerAnEntryPastTheDeadlineAndInterruptIt() throws Exception {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        register("test/slow", () -> {
+            try {
+                Thread.sleep(30_000);
+                return "finished";
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+        });
+        String request = "[" + call("slow", "test/slow") + "]";
+
+        MvcResult result = mockMvc.perform(post("/")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(request))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value("slow"))
+                .andExpect(jsonPath("$[0].error.code").value(-32603))
+                .andExpect(jsonPath("$[0].error.message").value("Internal error: batch deadline exceeded"));
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS), "the worker running the slow entry is interrupted");
+    }
+
+    @Test
+    void batch_shouldAnswerEntriesTheExecutorHasNoRoomForAsOverloaded() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        register("test/block", () -> release.await(10, TimeUnit.SECONDS) ? "released" : "timed out");
+        // Two threads and one queue slot hold at most three of the blocked entries. Which
+        // ones are refused depends on how fast the idle workers take from the queue.
+        String request = "[" + String.join(",", call("block-1", "test/block"), call("block-2", "test/block"),
+                call("block-3", "test/block"), call("block-4", "test/block")) + "]";
+
+        MvcResult result;
+        try {
+            result = mockMvc.perform(post("/")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(request))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+        } finally {
+            release.countDown();
+        }
+
+        MvcResult response = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(4))
+                .andReturn();
+
+        int overloaded = 0;
+        JsonNode entries = new ObjectMapper().readTree(response.getResponse().getContentAsString());
+        for (int i = 0; i < entries.size(); i++) {
+            JsonNode entry = entries.get(i);
+            assertEquals("block-" + (i + 1), entry.path("id").asText());
+            if (entry.has("error")) {
+                assertEquals(JsonRpcBulkhead.OVERLOADED, entry.path("error").path("code").asInt());
+                assertEquals("batch", entry.path("error").path("data").path("group").asText());
+                overloaded++;
+            } else {
+                assertEquals("released", entry.path("result").asText());
+            }
+        }
+        assertTrue(overloaded >= 1, "at least one entry finds no room");
+    }
+
+    private void register(String method, JsonRpcCall call) {
+        dispatcher.register(new JsonRpcInvoker() {
+            @Override
+            public List<String> methodNames() {
+                return List.of(method);
+            }
+
+            @Override
+            public JsonRpcCall bind(String methodName, JsonParser params) throws IOException {
+                if (params != null) {
+                    params.skipChildren();
+                }
+                return call;
+            }
+        });
+    }
+
+    private static String call(String id, String method) {
+        return "{\"jsonrpc\": \"2.0\", \"id\": \"" + id + "\", \"method\": \"" + method + "\"}";
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.a2a.benchmark;
+
+import com.example.a2a.jsonrpc.A2aJsonRpcService;
+import com.example.a2a.jsonrpc.A2aJsonRpcServiceInvoker;
+import com.example.a2a.jsonrpc.JsonRpcDispatcher;
+import com.example.a2a.jsonrpc.JsonRpcMappers;
+import com.example.a2a.jsonrpc.JsonRpcRequest;
+import com.example.a2a.jsonrpc.JsonRpcRequestReader;
+import com.example.a2a.jsonrpc.JsonRpcResponse;
+import com.example.a2a.jsonrpc.JsonRpcResponseWriter;
+import com.example.a2a.service.CityExtractor;
+import com.example.a2a.service.TaskService;
+import com.example.a2a.service.TaskServices;
+import com.example.a2a.service.WeatherService;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON vs CBOR throughput for a full request cycle (parse, bind, invoke, write)
+ * on {@code message/send} and {@code tasks/get}.
+ * <p>
+ * Run with {@code java -cp target/test-classes:<test classpath> org.openjdk.jmh.Main JsonRpcFormatBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonRpcFormatBenchmark {
+
+    private static final String TASK_ID = "bench-task";
+
+    @Param({"application/json", "application/cbor"})
+    private String format;
+
+    private MediaType mediaType;
+    private JsonRpcMappers mappers;
+    private JsonRpcRequestReader requestReader;
+    private JsonRpcResponseWriter responseWriter;
+    private byte[] sendRequest;
+    private byte[] getRequest;
+    private TaskService taskService;
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(4096);
+
+    @Setup
+    public void setUp() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.findAndRegisterModules();
+        mediaType = MediaType.parseMediaType(format);
+        mappers = new JsonRpcMappers(objectMapper);
+        responseWriter = new JsonRpcResponseWriter(objectMapper);
+
+        JsonRpcDispatcher dispatcher = new JsonRpcDispatcher();
+        taskService = TaskServices.inMemory();
+        WeatherService weatherService = new WeatherService(new CityExtractor());
+        dispatcher.register(new A2aJsonRpcServiceInvoker(new A2aJsonRpcService(taskService, weatherService)));
+        requestReader = new JsonRpcRequestReader(dispatcher, mappers);
+
+        ObjectMapper encoder = mappers.forMediaType(mediaType);
+        sendRequest = encoder.writeValueAsBytes(Map.of(
+                "jsonrpc", "2.0",
+                "id", "1",
+                "method", "message/send",
+                "params", Map.of(
+                        "id", TASK_ID,
+                        "message", Map.of(
+                                "role", "user",
+                                "parts", List.of(Map.of("type", "text", "text", "What's the weather in London?"))))));
+        getRequest = encoder.writeValueAsBytes(Map.of(
+                "jsonrpc", "2.0",
+                "id", "2",
+                "method", "tasks/get",
+                "params", Map.of("id", TASK_ID)));
+
+        roundTrip(sendRequest);
+    }
+
+    @TearDown
+    public void tearDown() {
+        taskService.close();
+    }
+
+    @Benchmark
+    public byte[] messageSend() throws Exception {
+        return roundTrip(sendRequest);
+    }
+
+    @Benchmark
+    public byte[] tasksGet() throws Exception {
+        return roundTrip(getRequest);
+    }
+
+    private byte[] roundTrip(byte[] body) throws Exception {
+        JsonRpcRequest request;
+        try (JsonParser parser = requestReader.open(new ByteArrayInputStream(body), mediaType)) {
+            parser.nextToken();
+            request = requestReader.read(parser);
+        }
+        JsonRpcResponse response = JsonRpcResponse.success(request.getId(), request.getCall().invoke());
+        out.reset();
+        write(response);
+        return out.toByteArray();
+    }
+
+    private void write(JsonRpcResponse response) throws IOException {
+        try (JsonGenerator gen = mappers.forMediaType(mediaType).getFactory()
+                .createGenerator(out, JsonEncoding.UTF8)) {
+            responseWriter.write(gen, response);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.a2a.benchmark;
+
+import com.example.a2a.config.A2AConfiguration;
+import com.example.a2a.model.Task;
+import com.example.a2a.model.TaskPage;
+import com.example.a2a.model.TaskText;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Task serialization through bean introspection with a plain writer, as before, vs the
+ * hand-written serializers with writers cached per type, as the application mapper
+ * is configured now. Covers a single completed task and a {@code tasks/list} page.
+ * <p>
+ * Run with {@code java -cp target/test-classes:<test classpath> org.openjdk.jmh.Main TaskSerializationBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskSerializationBenchmark {
+
+    private static final int PAGE_SIZE = 50;
+
+    @Param({"beans", "tuned"})
+    private String path;
+
+    private ObjectWriter taskWriter;
+    private ObjectWriter pageWriter;
+    private Task task;
+    private TaskPage page;
+
+    @Setup
+    public void setUp() {
+        if (path.equals("beans")) {
+            ObjectMapper mapper = new ObjectMapper();
+            mapper.findAndRegisterModules();
+            taskWriter = mapper.writer();
+            pageWriter = taskWriter;
+        } else {
+            ObjectMapper mapper = new A2AConfiguration().objectMapper();
+            taskWriter = mapper.writerFor(Task.class);
+            pageWriter = mapper.writerFor(TaskPage.class);
+        }
+        List<Task> tasks = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            tasks.add(new Task("bench-task-" + i).working()
+                    .completed(TaskText.of("The weather in London is partly cloudy, 18°C, wind 12 km/h W.")));
+        }
+        task = tasks.get(0);
+        page = new TaskPage(tasks, "bmV4dA");
+    }
+
+    @Benchmark
+    public byte[] task() throws Exception {
+        return taskWriter.writeValueAsBytes(task);
+    }
+
+    @Benchmark
+    public byte[] taskPage() throws Exception {
+        return pageWriter.writeValueAsBytes(page);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.a2a.benchmark;
+
+import com.example.a2a.model.Task;
+import com.example.a2a.service.TaskService;
+import com.example.a2a.service.TaskServices;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrent create/complete/get cycles against the task store, with one shard and
+ * with one shard per core.
+ * <p>
+ * Run with {@code java -cp target/test-classes:<test classpath> org.openjdk.jmh.Main TaskStoreBenchmark -t <threads>}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(Threads.MAX)
+@Fork(1)
+public class TaskStoreBenchmark {
+
+    /** {@code 0} is one shard per available processor. */
+    @Param({"1", "0"})
+    private int shards;
+
+    private TaskService taskService;
+    private final AtomicInteger threads = new AtomicInteger();
+
+    @Setup
+    public void setUp() {
+        // Short retention keeps the store at a steady size while the benchmark runs
+        taskService = TaskServices.inMemory(1_000, 100, shards);
+    }
+
+    @TearDown
+    public void tearDown() {
+        taskService.close();
+    }
+
+    /**
+     * Per-thread id sequence, so that the threads meet only in the store.
+     */
+    @State(Scope.Thread)
+    public static class Ids {
+        private String prefix;
+        private long next;
+
+        @Setup
+        public void setUp(TaskStoreBenchmark benchmark) {
+            prefix = "bench-" + benchmark.threads.incrementAndGet() + "-";
+        }
+
+        String next() {
+            return prefix + next++;
+        }
+    }
+
+    @Benchmark
+    public Task createCompleteGet(Ids ids) {
+        String id = ids.next();
+        taskService.createTask(id);
+        taskService.setTaskWorking(id);
+        taskService.completeTask(id, "done");
+        return taskService.getTask(id);
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.a2a.jsonrpc;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonRpcBulkheadTest {
+
+    @Test
+    void tryEnter_shouldRejectAtOnceWhenSlotsAndQueueAreFull() {
+        JsonRpcBulkhead bulkhead = new JsonRpcBulkhead("send", 2, 0, 5_000);
+
+        assertTrue(bulkhead.tryEnter());
+        assertTrue(bulkhead.tryEnter());
+        assertEquals(2, bulkhead.getActive());
+
+        long start = System.nanoTime();
+        assertFalse(bulkhead.tryEnter());
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1_000);
+
+        bulkhead.exit();
+        assertEquals(1, bulkhead.getActive());
+        assertTrue(bulkhead.tryEnter());
+    }
+
+    @Test
+    void tryEnter_shouldQueueUntilSlotIsReleased() throws Exception {
+        JsonRpcBulkhead bulkhead = new JsonRpcBulkhead("send", 1, 1, 5_000);
+        assertTrue(bulkhead.tryEnter());
+
+        CompletableFuture<Boolean> waiter = CompletableFuture.supplyAsync(bulkhead::tryEnter);
+        while (bulkhead.getQueued() == 0) {
+            Thread.onSpinWait();
+        }
+        assertFalse(bulkhead.tryEnter(), "queue of one is already taken");
+
+        bulkhead.exit();
+        assertTrue(waiter.get(5, TimeUnit.SECONDS));
+        assertEquals(0, bulkhead.getQueued());
+        assertEquals(1, bulkhead.getActive());
+    }
+
+    @Test
+    void tryEnter_shouldGiveUpAfterMaxWait() {
+        JsonRpcBulkhead bulkhead = new JsonRpcBulkhead("send", 1, 4, 50);
+        assertTrue(bulkhead.tryEnter());
+
+        assertFalse(bulkhead.tryEnter());
+        assertEquals(0, bulkhead.getQueued());
+    }
+}
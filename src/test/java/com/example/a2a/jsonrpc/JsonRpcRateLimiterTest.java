@@ -0,0 +1,65 @@
+package com.example.a2a.jsonrpc;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonRpcRateLimiterTest {
+
+    @Test
+    void tryAcquire_shouldAdmitBurstThenReturnRetryAfter() {
+        JsonRpcRateLimiter limiter = new JsonRpcRateLimiter(
+                new JsonRpcRateLimiter.Rate(1, 3), Map.of(), method -> true, 60_000);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire("addr:10.0.0.1", "message/send"));
+        }
+        long retryAfterMs = limiter.tryAcquire("addr:10.0.0.1", "message/send");
+        assertTrue(retryAfterMs > 0 && retryAfterMs <= 1000, "retryAfterMs=" + retryAfterMs);
+    }
+
+    @Test
+    void tryAcquire_shouldKeepClientsAndMethodsApart() {
+        JsonRpcRateLimiter limiter = new JsonRpcRateLimiter(
+                new JsonRpcRateLimiter.Rate(1, 1),
+                Map.of("tasks/get", new JsonRpcRateLimiter.Rate(1000, 1000)), method -> true, 60_000);
+
+        assertEquals(0, limiter.tryAcquire("addr:10.0.0.1", "message/send"));
+        assertTrue(limiter.tryAcquire("addr:10.0.0.1", "message/send") > 0);
+
+        assertEquals(0, limiter.tryAcquire("addr:10.0.0.2", "message/send"));
+        for (int i = 0; i < 100; i++) {
+            assertEquals(0, limiter.tryAcquire("addr:10.0.0.1", "tasks/get"));
+        }
+    }
+
+    @Test
+    void tryAcquire_shouldShareOneBucketAcrossUnregisteredMethods() {
+        JsonRpcRateLimiter limiter = new JsonRpcRateLimiter(
+                new JsonRpcRateLimiter.Rate(1, 1), Map.of(), Set.of("tasks/get")::contains, 60_000);
+
+        assertEquals(0, limiter.tryAcquire("addr:10.0.0.1", "made/up-1"));
+        assertTrue(limiter.tryAcquire("addr:10.0.0.1", "made/up-2") > 0);
+        assertTrue(limiter.tryAcquire("addr:10.0.0.1", null) > 0);
+        assertEquals(0, limiter.tryAcquire("addr:10.0.0.1", "tasks/get"));
+        assertEquals(2, limiter.size());
+    }
+
+    @Test
+    void tryAcquire_shouldDropIdleBuckets() throws InterruptedException {
+        JsonRpcRateLimiter limiter = new JsonRpcRateLimiter(
+                new JsonRpcRateLimiter.Rate(1000, 10), Map.of(), method -> true, 20);
+
+        for (int i = 0; i < 50; i++) {
+            limiter.tryAcquire("addr:10.0.0." + i, "tasks/get");
+        }
+        assertEquals(50, limiter.size());
+
+        Thread.sleep(100);
+        limiter.tryAcquire("addr:10.0.1.1", "tasks/get");
+        assertEquals(1, limiter.size());
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.a2a.model;
+
+import org.junit.jupiter.api.Test;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Retained bytes of one stored task, measured with JOL against the layout the task had
+ * before it was made compact.
+ */
+class TaskFootprintTest {
+
+    @Test
+    void completedTask_shouldTakeAtMostHalfTheBaseline() {
+        String id = "task-00000001";
+        String text = "Sunny, 21°C";
+        TaskText result = TaskText.of(text);
+
+        long compact = perTask(
+                () -> new Task(id).working().completed(result,
+                        List.of(new Task.Artifact("response", List.of(new Task.Part("text", result))))));
+        long baseline = perTask(() -> BaselineTask.completed(id, text));
+
+        // Baseline: Task, two Instants, artifact list, artifact, part list and part.
+        // Compact: only the Task and its packed history.
+        assertTrue(2 * compact <= baseline, "completed task takes " + compact + " bytes, baseline " + baseline);
+        Task task = new Task(id).working().completed(result);
+        assertEquals(text, task.getArtifacts().get(0).getParts().get(0).getText());
+        assertSame(task.getStatus(), new Task("other").working().completed(result).getStatus());
+    }
+
+    /**
+     * The bytes a second task adds to the graph of a first one built the same way, so
+     * the id, the result and every constant the two share are left out.
+     */
+    private static long perTask(Supplier<Object> task) {
+        Object first = task.get();
+        Object second = task.get();
+        return GraphLayout.parseInstance(first, second).totalSize() - GraphLayout.parseInstance(first).totalSize();
+    }
+
+    /**
+     * The task as it was before: mutable, with {@code Instant} timestamps and the
+     * result stored again as the text of its artifact.
+     */
+    private static final class BaselineTask {
+        private final String id;
+        private Task.TaskState state;
+        private String result;
+        private final Instant createdAt;
+        private Instant updatedAt;
+        private List<BaselineArtifact> artifacts;
+
+        private BaselineTask(String id) {
+            this.id = id;
+            this.state = Task.TaskState.SUBMITTED;
+            this.createdAt = Instant.now();
+            this.updatedAt = Instant.now();
+        }
+
+        static BaselineTask completed(String id, String result) {
+            BaselineTask task = new BaselineTask(id);
+            task.state = Task.TaskState.COMPLETED;
+            task.result = result;
+            task.artifacts = List.of(new BaselineArtifact("response", List.of(new BaselinePart("text", result))));
+            task.updatedAt = Instant.now();
+            return task;
+        }
+    }
+
+    private static final class BaselineArtifact {
+        private final String name;
+        private final List<BaselinePart> parts;
+
+        BaselineArtifact(String name, List<BaselinePart> parts) {
+            this.name = name;
+            this.parts = parts;
+        }
+    }
+
+    private static final class BaselinePart {
+        private final String type;
+        private final String text;
+
+        BaselinePart(String type, String text) {
+            this.type = type;
+            this.text = text;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.a2a.model;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskJsonModuleTest {
+
+    private final ObjectMapper beans = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final ObjectMapper tuned = new ObjectMapper().registerModule(new JavaTimeModule())
+            .registerModule(new TaskJsonModule());
+
+    @Test
+    void serialize_shouldWriteTheSameDocumentAsBeanSerialization() throws Exception {
+        Task completed = new Task("task-1").working().completed(TaskText.of("Sunny, 21°C"));
+        Task explicit = new Task("task-2").working().completed("done", List.of(
+                new Task.Artifact("report", List.of(new Task.Part("text", "a"), new Task.Part("text", (String) null)))));
+        List<Object> values = List.of(completed, explicit, new Task("task-3"), new Task("task-4").canceled(),
+                new TaskWithHistory(completed), new TaskPage(List.of(completed, explicit), "next"));
+
+        for (Object value : values) {
+            assertEquals(beans.readTree(beans.writeValueAsBytes(value)), tuned.readTree(tuned.writeValueAsBytes(value)));
+        }
+    }
+
+    @Test
+    void serialize_shouldFollowTheMapperDateSettings() throws Exception {
+        Task task = new Task("task-1").working().completed(TaskText.of("done"));
+
+        for (SerializationFeature feature : List.of(SerializationFeature.WRITE_DATE_TIMESTAMPS_AS_NANOSECONDS,
+                SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)) {
+            String expected = beans.copy().disable(feature).writeValueAsString(task);
+            String written = tuned.copy().disable(feature).writeValueAsString(task);
+            assertEquals(beans.readTree(expected), tuned.readTree(written));
+        }
+    }
+
+    @Test
+    void serialize_shouldFollowAFormatOverrideOrACustomInstantSerializer() throws Exception {
+        Task task = new Task("task-1").working().completed(TaskText.of("done"));
+        SimpleModule epochSeconds = new SimpleModule().addSerializer(Instant.class, new StdSerializer<>(Instant.class) {
+            @Override
+            public void serialize(Instant value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+                gen.writeNumber(value.getEpochSecond());
+            }
+        });
+
+        ObjectMapper overridden = beans.copy();
+        overridden.configOverride(Instant.class).setFormat(JsonFormat.Value.forShape(JsonFormat.Shape.STRING));
+        ObjectMapper overriddenTuned = tuned.copy();
+        overriddenTuned.configOverride(Instant.class).setFormat(JsonFormat.Value.forShape(JsonFormat.Shape.STRING));
+        assertEquals(overridden.valueToTree(task), overriddenTuned.valueToTree(task));
+
+        ObjectMapper custom = beans.copy().registerModule(epochSeconds);
+        ObjectMapper customTuned = tuned.copy().registerModule(epochSeconds);
+        assertEquals(custom.readTree(custom.writeValueAsString(task)),
+                customTuned.readTree(customTuned.writeValueAsString(task)));
+    }
+
+    @Test
+    void serialize_shouldWriteInstantsAroundTheEpochLikeTheSerializer() throws Exception {
+        Pattern createdAt = Pattern.compile("\"createdAt\":([^,]+),");
+        for (long millis : new long[]{-2_001, -1_000, -999, -1, 0, 1, 10, 999, 1_000, 1_001, 1_700_000_000_000L}) {
+            Instant instant = Instant.ofEpochMilli(millis);
+            Task task = Task.restore("task-1", Task.TaskState.SUBMITTED, (String) null, null, instant, instant, 0);
+
+            Matcher expected = createdAt.matcher(beans.writeValueAsString(task));
+            Matcher written = createdAt.matcher(tuned.writeValueAsString(task));
+            assertTrue(expected.find() && written.find());
+            assertEquals(expected.group(1), written.group(1), "epoch millis " + millis);
+        }
+    }
+
+    @Test
+    void serialize_shouldLeaveTheVersionOutOfTheDocument() throws Exception {
+        Task task = new Task("task-1").working();
+
+        assertFalse(tuned.readTree(tuned.writeValueAsString(task)).has("version"));
+        assertFalse(beans.readTree(beans.writeValueAsString(task)).has("version"));
+    }
+
+    @Test
+    void serialize_shouldWriteTheFieldsInAFixedOrder() throws Exception {
+        Task task = new Task("task-1");
+
+        String json = tuned.writeValueAsString(task);
+
+        assertTrue(json.matches("\\{\"id\":\"task-1\",\"state\":\"SUBMITTED\",\"result\":null,\"createdAt\":[0-9.]+,"
+                + "\"updatedAt\":[0-9.]+,\"artifacts\":null,\"status\":\\{\"state\":\"submitted\"}}"), json);
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.a2a.service;
+
+import com.example.a2a.model.Task;
+import com.example.a2a.model.TaskText;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapTextStoreTest {
+
+    @Test
+    void store_shouldRoundTripUtf8TextOfAnySize() {
+        OffHeapTextStore store = new OffHeapTextStore(4096, 0, new SimpleMeterRegistry());
+        String small = "Sunny, 21°C in Zürich";
+        String large = "x".repeat(10_000);
+
+        assertEquals(small, store.store(small).get());
+        assertEquals(large, store.store(large).get());
+        assertNull(store.store(null));
+        assertEquals(4096 + 10_008, store.reservedBytes());
+    }
+
+    @Test
+    void reclaim_shouldReuseChunksAfterTheGracePeriodOnly() {
+        OffHeapTextStore store = new OffHeapTextStore(4096, 60_000, new SimpleMeterRegistry());
+        TaskText text = store.store("first");
+        text.release();
+        text.release();
+
+        store.reclaim();
+        assertEquals(64, store.usedBytes());
+        assertEquals("first", text.get(), "still readable during the grace period");
+
+        store.reclaim(System.nanoTime() + TimeUnit.SECONDS.toNanos(60));
+        assertEquals(0, store.usedBytes());
+        TaskText reused = store.store("second");
+        assertEquals("second", reused.get());
+        assertEquals("first", text.get(), "a released text keeps reading its own value");
+    }
+
+    @Test
+    void reclaim_shouldDropSlabsThatBecameEmpty() throws InterruptedException {
+        OffHeapTextStore store = new OffHeapTextStore(256, 0, new SimpleMeterRegistry());
+        List<TaskText> texts = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            texts.add(store.store("text-" + i));
+        }
+        assertEquals(3 * 256, store.reservedBytes());
+
+        texts.forEach(TaskText::release);
+        texts.clear();
+        store.reclaim();
+        assertEquals(0, store.usedBytes());
+
+        awaitReserved(store, 256);
+    }
+
+    @Test
+    void reclaim_shouldReportADedicatedBufferFreedOnceItIsCollected() throws InterruptedException {
+        OffHeapTextStore store = new OffHeapTextStore(256, 0, new SimpleMeterRegistry());
+        String large = "x".repeat(1_000);
+        TaskText text = store.store(large);
+        assertEquals(1_008, store.reservedBytes());
+
+        text.release();
+        store.reclaim();
+
+        // The handle is still held, so it reads a copy and no longer holds the buffer
+        assertEquals(large, text.get());
+        awaitReserved(store, 0);
+        assertEquals(large, text.get());
+    }
+
+    @Test
+    void taskService_shouldKeepAReplacedSnapshotReadableAfterReclaim() {
+        OffHeapTextStore store = new OffHeapTextStore(4096, 0, new SimpleMeterRegistry());
+        try (TaskService service = new TaskService(3_600_000, 3_600_000, 1_000, 1L << 30, 1, 1, 1,
+                new SimpleMeterRegistry(), null, store)) {
+            service.createTask("task-1");
+            Task replaced = service.completeTask("task-1", "first");
+
+            // Recreating the id releases the completed snapshot's result
+            service.createTask("task-1");
+            store.reclaim();
+            assertEquals(0, store.usedBytes());
+            service.createTask("task-2");
+            Task reused = service.completeTask("task-2", "other");
+
+            assertEquals("first", replaced.getResult());
+            assertEquals("first", replaced.getArtifacts().get(0).getParts().get(0).getText());
+            assertEquals("other", reused.getResult());
+        }
+    }
+
+    @Test
+    void taskService_shouldReleaseTheResultWhenTheTaskExpires() {
+        OffHeapTextStore store = new OffHeapTextStore(4096, 0, new SimpleMeterRegistry());
+        try (TaskService service = new TaskService(50, 50, 1_000, 1L << 30, 1, 1, 1,
+                new SimpleMeterRegistry(), null, store)) {
+            service.createTask("task-1");
+            Task task = service.completeTask("task-1", "done");
+
+            assertEquals("done", task.getResult());
+            assertSame(task.resultText(), task.getArtifacts().get(0).getParts().get(0).textContent());
+            assertEquals(64, store.usedBytes());
+
+            service.expireTasks(System.currentTimeMillis() + 60_000);
+            store.reclaim();
+            assertNull(service.getTask("task-1"));
+            assertEquals(0, store.usedBytes());
+        }
+    }
+
+    /**
+     * A dropped slab counts as reserved until its buffer is collected.
+     */
+    private static void awaitReserved(OffHeapTextStore store, long bytes) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (store.reservedBytes() != bytes && System.nanoTime() < deadline) {
+            System.gc();
+            Thread.sleep(10);
+            store.reclaim();
+        }
+        assertEquals(bytes, store.reservedBytes());
+    }
+}
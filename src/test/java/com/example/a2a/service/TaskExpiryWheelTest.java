@@ -0,0 +1,77 @@
+package com.example.a2a.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskExpiryWheelTest {
+
+    @Test
+    void advance_shouldExpireADeadlineInsideTheCurrentTickOnTheNextTick() {
+        TaskExpiryWheel<String> wheel = new TaskExpiryWheel<>(10, 8, 0);
+        List<String> expired = new ArrayList<>();
+
+        wheel.schedule("task-1", 15);
+        wheel.advance(12, expired::add);
+        assertEquals(List.of(), expired);
+
+        // Not a whole revolution (80 ms) later
+        wheel.advance(20, expired::add);
+        assertEquals(List.of("task-1"), expired);
+    }
+
+    @Test
+    void schedule_shouldPutAPastDeadlineIntoTheNextTick() {
+        TaskExpiryWheel<String> wheel = new TaskExpiryWheel<>(10, 8, 0);
+        List<String> expired = new ArrayList<>();
+        wheel.advance(35, expired::add);
+
+        wheel.schedule("task-1", 5);
+        wheel.advance(40, expired::add);
+
+        assertEquals(List.of("task-1"), expired);
+    }
+
+    @Test
+    void schedule_shouldNotLoseAnEntryToAConcurrentAdvance() throws Exception {
+        int schedulers = 4;
+        int perScheduler = 20_000;
+        TaskExpiryWheel<Integer> wheel = new TaskExpiryWheel<>(1, 64, 0);
+        AtomicLong now = new AtomicLong();
+        Set<Integer> expired = ConcurrentHashMap.newKeySet();
+        ExecutorService threads = Executors.newFixedThreadPool(schedulers);
+        try {
+            List<Future<?>> running = new ArrayList<>();
+            for (int s = 0; s < schedulers; s++) {
+                int first = s * perScheduler;
+                running.add(threads.submit(() -> {
+                    for (int i = first; i < first + perScheduler; i++) {
+                        wheel.schedule(i, now.get());
+                    }
+                }));
+            }
+            while (!running.stream().allMatch(Future::isDone)) {
+                wheel.advance(now.incrementAndGet(), expired::add);
+            }
+            for (Future<?> scheduler : running) {
+                scheduler.get();
+            }
+        } finally {
+            threads.shutdown();
+        }
+
+        // Every deadline is at most the last tick, so one more tick has to expire them all,
+        // far short of a revolution of the wheel
+        wheel.advance(now.get() + 1, expired::add);
+        assertEquals(schedulers * perScheduler, expired.size());
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.a2a.service;
+
+import com.example.a2a.model.Task;
+import org.junit.jupiter.api.Test;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskIndexTest {
+
+    @Test
+    void byCreation_shouldNeverMissATaskThatIsMovingOn() throws InterruptedException {
+        TaskIndex index = new TaskIndex();
+        Map<String, Task> store = new ConcurrentHashMap<>();
+        int tasks = 200;
+        for (int i = 0; i < tasks; i++) {
+            Task task = new Task(String.format("task-%03d", i));
+            store.put(task.getId(), task);
+            index.add(task);
+        }
+        Task submitted = store.get("task-100");
+        Task working = submitted.working();
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread transitions = new Thread(() -> {
+            Task current = submitted;
+            while (running.get()) {
+                Task next = current == submitted ? working : submitted;
+                store.put(next.getId(), next);
+                index.replace(current, next);
+                current = next;
+            }
+        });
+        transitions.start();
+        try {
+            for (int round = 0; round < 2_000; round++) {
+                int seen = 0;
+                for (Iterator<Task> it = TaskIndex.byCreation(List.of(index), store::get); it.hasNext(); it.next()) {
+                    seen++;
+                }
+                assertEquals(tasks, seen, "round " + round);
+            }
+        } finally {
+            running.set(false);
+            transitions.join();
+        }
+    }
+
+    @Test
+    void replace_shouldMoveTheStateEntriesOfATransition() {
+        TaskIndex index = new TaskIndex();
+        Map<String, Task> store = new ConcurrentHashMap<>();
+        Task submitted = new Task("task-1");
+        store.put("task-1", submitted);
+        index.add(submitted);
+
+        Task working = submitted.working();
+        store.put("task-1", working);
+        index.replace(submitted, working);
+
+        assertEquals(List.of(), ids(index, Task.TaskState.SUBMITTED, store));
+        assertEquals(List.of("task-1"), ids(index, Task.TaskState.WORKING, store));
+    }
+
+    private static List<String> ids(TaskIndex index, Task.TaskState state, Map<String, Task> store) {
+        return TaskIndex.list(List.of(index), new TaskQuery(state, null, null, null, null, 10, null), store::get)
+                .getTasks().stream().map(Task::getId).toList();
+    }
+}
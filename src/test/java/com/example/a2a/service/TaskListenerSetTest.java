@@ -0,0 +1,151 @@
+package com.example.a2a.service;
+
+import com.example.a2a.model.Task;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskListenerSetTest {
+
+    @Test
+    void stalledListener_shouldReturnToTheSharedThreadsOnceItKeepsUp() throws InterruptedException {
+        ExecutorService shared = Executors.newSingleThreadExecutor(named("shared"));
+        ExecutorService stalled = Executors.newCachedThreadPool(named("stalled"));
+        try {
+            TaskListenerSet set = new TaskListenerSet();
+            BlockingQueue<String> threads = new LinkedBlockingQueue<>();
+            set.add(update -> {
+                threads.add(Thread.currentThread().getName());
+                if (update.getState() == Task.TaskState.SUBMITTED) {
+                    sleep(200);
+                }
+            });
+
+            Task task = new Task("task-1");
+            set.publish(new TaskUpdate(task), shared, stalled);
+            assertEquals("shared", threads.poll(5, TimeUnit.SECONDS));
+            set.publish(new TaskUpdate(task.working()), shared, stalled);
+            assertEquals("stalled", threads.poll(5, TimeUnit.SECONDS));
+            sleep(100);
+            // The lane is idle and its last call was fast: the listener is back on the shared threads
+            set.publish(new TaskUpdate(task.working().canceled()), shared, stalled);
+            assertEquals("shared", threads.poll(5, TimeUnit.SECONDS));
+        } finally {
+            shared.shutdown();
+            stalled.shutdown();
+        }
+    }
+
+    @Test
+    void stalledListener_shouldBeDroppedWhenNoThreadIsFree() throws InterruptedException {
+        ExecutorService shared = Executors.newSingleThreadExecutor();
+        try {
+            TaskListenerSet set = new TaskListenerSet();
+            CountDownLatch dropped = new CountDownLatch(1);
+            set.add(new SlowListener(dropped));
+
+            Task task = new Task("task-1");
+            set.publish(new TaskUpdate(task), shared, command -> {
+                throw new RejectedExecutionException("full");
+            });
+            set.publish(new TaskUpdate(task.working()), shared, command -> {
+                throw new RejectedExecutionException("full");
+            });
+
+            assertTrue(dropped.await(5, TimeUnit.SECONDS));
+            assertEquals(0, set.size());
+        } finally {
+            shared.shutdown();
+        }
+    }
+
+    @Test
+    void stalledListener_shouldBeDroppedOnceItStaysStuckPastTheTimeout() throws InterruptedException {
+        ExecutorService shared = Executors.newSingleThreadExecutor();
+        ExecutorService stalled = Executors.newCachedThreadPool();
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            TaskListenerSet set = new TaskListenerSet(100);
+            CountDownLatch dropped = new CountDownLatch(1);
+            CountDownLatch stuck = new CountDownLatch(1);
+            set.add(new SlowListener(dropped) {
+                @Override
+                public void onTaskUpdate(TaskUpdate update) {
+                    if (update.getState() == Task.TaskState.WORKING) {
+                        stuck.countDown();
+                        await(release);
+                    } else {
+                        super.onTaskUpdate(update);
+                    }
+                }
+            });
+
+            Task task = new Task("task-1");
+            set.publish(new TaskUpdate(task), shared, stalled);
+            set.publish(new TaskUpdate(task.working()), shared, stalled);
+            assertTrue(stuck.await(5, TimeUnit.SECONDS));
+            sleep(200);
+            set.publish(new TaskUpdate(task.working().canceled()), shared, stalled);
+
+            // Told once its stuck call returns, not while it still holds the lane
+            assertFalse(dropped.await(100, TimeUnit.MILLISECONDS));
+            assertEquals(0, set.size());
+            release.countDown();
+            assertTrue(dropped.await(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            shared.shutdown();
+            stalled.shutdown();
+        }
+    }
+
+    /**
+     * Stalls on every update and counts down {@code dropped} when dropped.
+     */
+    private static class SlowListener implements TaskService.TaskUpdateListener {
+        private final CountDownLatch dropped;
+
+        SlowListener(CountDownLatch dropped) {
+            this.dropped = dropped;
+        }
+
+        @Override
+        public void onTaskUpdate(TaskUpdate update) {
+            sleep(100);
+        }
+
+        @Override
+        public void onDropped() {
+            dropped.countDown();
+        }
+    }
+
+    private static ThreadFactory named(String name) {
+        return runnable -> new Thread(runnable, name);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package com.example.a2a.service;
+
+import com.example.a2a.model.Task;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void reopen_shouldRecoverTheLatestSnapshotOfEachTask() throws IOException {
+        try (TaskLog log = new TaskLog(directory, 1 << 20, 0, 60_000)) {
+            Task task = new Task("task-1");
+            log.append(task).join();
+            log.append(task.working()).join();
+            log.append(task.working().completed("done", null)).join();
+            Task other = new Task("task-2").working();
+            log.append(other).join();
+            // Recreated under the same id: the new version 0 starts the task over
+            log.append(new Task("task-2")).join();
+        }
+
+        try (TaskLog log = new TaskLog(directory, 1 << 20, 0, 60_000)) {
+            Map<String, Task> tasks = log.recoveredTasks();
+            assertEquals(Task.TaskState.COMPLETED, tasks.get("task-1").getState());
+            assertEquals("done", tasks.get("task-1").getResult());
+            assertEquals(2, tasks.get("task-1").getVersion());
+            assertEquals(3, tasks.get("task-1").history().size());
+            assertEquals(Task.TaskState.WORKING, tasks.get("task-1").history().state(1));
+            assertEquals(Task.TaskState.SUBMITTED, tasks.get("task-2").getState());
+        }
+    }
+
+    @Test
+    void reopen_shouldCutOffATornRecord() throws IOException {
+        try (TaskLog log = new TaskLog(directory, 1 << 20, 0, 60_000)) {
+            log.append(new Task("task-1")).join();
+        }
+        Path segment = segments().get(0);
+        long intact = Files.size(segment);
+        Files.write(segment, new byte[]{0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        try (TaskLog log = new TaskLog(directory, 1 << 20, 0, 60_000)) {
+            assertEquals(Task.TaskState.SUBMITTED, log.recoveredTasks().get("task-1").getState());
+            assertEquals(1, log.recoveredTasks().size());
+        }
+        assertEquals(intact, Files.size(segment));
+    }
+
+    @Test
+    void reopen_shouldFailOnADamagedSegmentBeforeTheLast() throws IOException {
+        try (TaskLog log = new TaskLog(directory, 64, 0, 60_000)) {
+            for (int i = 0; i < 4; i++) {
+                log.append(new Task("task-" + i)).join();
+            }
+        }
+        Path first = segments().get(0);
+        byte[] bytes = Files.readAllBytes(first);
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(first, bytes);
+
+        assertThrows(IOException.class, () -> new TaskLog(directory, 64, 0, 60_000));
+        assertEquals(bytes.length, Files.size(first));
+    }
+
+    @Test
+    void reopen_shouldTrimADamagedSegmentCoveredByACutRecord() throws IOException {
+        try (TaskLog log = new TaskLog(directory, 64, 0, 60_000)) {
+            for (int i = 0; i < 4; i++) {
+                log.append(new Task("task-" + i)).join();
+            }
+        }
+        // As written after a failed write whose segment could not be truncated: garbage
+        // after the intact records, and the next segment opening with a cut record
+        Path first = segments().get(0);
+        long intact = Files.size(first);
+        Files.write(first, new byte[]{0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+        Path second = segments().get(1);
+        byte[] cut = ByteBuffer.allocate(9).put((byte) -2).putLong(intact).array();
+        byte[] rest = Files.readAllBytes(second);
+        Files.write(second, ByteBuffer.allocate(8 + cut.length + rest.length)
+                .put(header(cut)).put(cut).put(rest).array());
+
+        try (TaskLog log = new TaskLog(directory, 64, 0, 60_000)) {
+            assertEquals(4, log.recoveredTasks().size());
+        }
+        assertEquals(intact, Files.size(first));
+    }
+
+    @Test
+    void taskService_shouldNotBringBackExpiredTasks() throws IOException {
+        try (TaskLog log = new TaskLog(directory, 1 << 20, 0, 60_000);
+             TaskService service = new TaskService(50, 3_600_000, 1_000, 1L << 30, 1, 1, 1,
+                     new SimpleMeterRegistry(), log, null)) {
+            service.createTask("expired");
+            service.completeTask("expired", "result");
+            service.createTask("kept");
+            service.cancelTask("kept");
+            service.expireTasks(System.currentTimeMillis() + 60_000);
+        }
+
+        try (TaskLog log = new TaskLog(directory, 1 << 20, 0, 60_000)) {
+            assertEquals(Set.of("kept"), log.recoveredTasks().keySet());
+        }
+    }
+
+    @Test
+    void taskService_shouldNotBringBackEvictedTasks() throws IOException {
+        String result = "x".repeat(1_000);
+        long weight = TaskWeigher.weigh(new Task("evicted").completed(result, null));
+        try (TaskLog log = new TaskLog(directory, 1 << 20, 0, 60_000);
+             TaskService service = new TaskService(3_600_000, 3_600_000, 1_000, weight + weight / 2, 1, 1, 1,
+                     new SimpleMeterRegistry(), log, null)) {
+            service.createTask("evicted");
+            service.completeTask("evicted", result);
+            service.createTask("newer");
+            service.completeTask("newer", result);
+            assertNull(service.getTask("evicted"));
+        }
+
+        try (TaskLog log = new TaskLog(directory, 1 << 20, 0, 60_000)) {
+            assertEquals(Set.of("newer"), log.recoveredTasks().keySet());
+        }
+    }
+
+    @Test
+    void compact_shouldKeepOnlyLiveTasks() throws IOException {
+        Task kept = new Task("kept").working();
+        try (TaskLog log = new TaskLog(directory, 256, 0, 60_000)) {
+            for (int i = 0; i < 20; i++) {
+                log.append(new Task("gone-" + i)).join();
+            }
+            log.append(kept).join();
+            assertTrue(segments().size() > 1);
+
+            TaskLog.Compaction compaction = log.compact();
+            compaction.add(kept);
+            compaction.finish().join();
+            assertEquals(1, segments().size());
+            log.append(kept.completed("done", null)).join();
+        }
+
+        try (TaskLog log = new TaskLog(directory, 256, 0, 60_000)) {
+            assertEquals("done", log.recoveredTasks().get("kept").getResult());
+            assertEquals(1, log.recoveredTasks().size());
+        }
+    }
+
+    @Test
+    void taskService_shouldRebuildTheStoreFromTheLog() throws IOException {
+        try (TaskLog log = new TaskLog(directory, 1 << 20, 0, 60_000);
+             TaskService service = new TaskService(3_600_000, 3_600_000, 1_000, 1L << 30, 1, 1, 1,
+                     new SimpleMeterRegistry(), log, null)) {
+            service.createTask("done");
+            service.setTaskWorking("done");
+            service.completeTask("done", "result");
+            service.createTask("canceled");
+            service.cancelTask("canceled");
+            service.createTask("working");
+            service.setTaskWorking("working");
+        }
+
+        try (TaskLog log = new TaskLog(directory, 1 << 20, 0, 60_000);
+             TaskService service = new TaskService(3_600_000, 3_600_000, 1_000, 1L << 30, 1, 1, 1,
+                     new SimpleMeterRegistry(), log, null)) {
+            Task done = service.getTask("done");
+            assertEquals(Task.TaskState.COMPLETED, done.getState());
+            assertEquals("result", done.getArtifacts().get(0).getParts().get(0).getText());
+            assertEquals(Task.TaskState.CANCELED, service.getTask("canceled").getState());
+            assertEquals(Task.TaskState.WORKING, service.getTask("working").getState());
+            assertEquals(Task.TaskState.COMPLETED, service.completeTask("working", "late").getState());
+        }
+    }
+
+    @Test
+    void compactLog_shouldKeepTheTransitionsThatRaceIt() throws Exception {
+        int tasks = 200;
+        try (TaskLog log = new TaskLog(directory, 4096, 0, 3_600_000);
+             TaskService service = new TaskService(3_600_000, 3_600_000, 1_000, 1L << 30, 1, 4, 1,
+                     new SimpleMeterRegistry(), log, null)) {
+            ExecutorService writers = Executors.newFixedThreadPool(4);
+            try {
+                List<Future<?>> running = new ArrayList<>();
+                for (int w = 0; w < 4; w++) {
+                    int first = w;
+                    running.add(writers.submit(() -> {
+                        for (int i = first; i < tasks; i += 4) {
+                            String id = "task-" + i;
+                            service.createTask(id);
+                            service.setTaskWorking(id);
+                            service.completeTask(id, "result-" + i);
+                        }
+                    }));
+                }
+                while (!running.stream().allMatch(Future::isDone)) {
+                    service.compactLog();
+                }
+                for (Future<?> done : running) {
+                    done.get();
+                }
+            } finally {
+                writers.shutdown();
+            }
+            service.compactLog();
+        }
+
+        try (TaskLog log = new TaskLog(directory, 4096, 0, 3_600_000)) {
+            Map<String, Task> recovered = log.recoveredTasks();
+            assertEquals(tasks, recovered.size());
+            for (int i = 0; i < tasks; i++) {
+                Task task = recovered.get("task-" + i);
+                assertEquals(Task.TaskState.COMPLETED, task.getState(), task.getId());
+                assertEquals("result-" + i, task.getResult());
+            }
+        }
+    }
+
+    @Test
+    void taskService_shouldKeepThePreviousSnapshotWhenTheLogFails() throws IOException {
+        AtomicBoolean failing = new AtomicBoolean();
+        List<TaskUpdate> updates = new CopyOnWriteArrayList<>();
+        try (TaskLog log = new TaskLog(directory, 1 << 20, 0, 60_000) {
+                @Override
+                public CompletableFuture<Void> append(Task task) {
+                    return failing.get()
+                            ? CompletableFuture.failedFuture(new UncheckedIOException(new IOException("disk full")))
+                            : super.append(task);
+                }
+            };
+             TaskService service = new TaskService(3_600_000, 3_600_000, 1_000, 1L << 30, 1, 1, 1,
+                     new SimpleMeterRegistry(), log, null)) {
+            service.createTask("task");
+            service.addListener("task", updates::add);
+            failing.set(true);
+
+            assertThrows(UncheckedIOException.class, () -> service.setTaskWorking("task"));
+
+            assertEquals(Task.TaskState.SUBMITTED, service.getTask("task").getState());
+            assertTrue(service.listTasks(new TaskQuery(Task.TaskState.WORKING, null, null, null, null, 10, null))
+                    .getTasks().isEmpty());
+            assertEquals(1, service.listTasks(new TaskQuery(Task.TaskState.SUBMITTED, null, null, null, null, 10, null))
+                    .getTasks().size());
+            assertTrue(updates.isEmpty(), "no subscriber sees a snapshot the log refused");
+        }
+    }
+
+    @Test
+    void close_shouldAnswerEveryAppendThatRacesIt() throws Exception {
+        Task task = new Task("task");
+        List<CompletableFuture<Void>> appended = new CopyOnWriteArrayList<>();
+        ExecutorService writers = Executors.newFixedThreadPool(4);
+        try {
+            TaskLog log = new TaskLog(directory, 1 << 20, 0, 60_000);
+            CountDownLatch started = new CountDownLatch(4);
+            List<Future<?>> running = new ArrayList<>();
+            for (int w = 0; w < 4; w++) {
+                running.add(writers.submit(() -> {
+                    started.countDown();
+                    try {
+                        while (true) {
+                            appended.add(log.append(task));
+                        }
+                    } catch (IllegalStateException closed) {
+                        return;
+                    }
+                }));
+            }
+            started.await();
+            log.close();
+            for (Future<?> done : running) {
+                done.get(5, TimeUnit.SECONDS);
+            }
+        } finally {
+            writers.shutdown();
+        }
+
+        for (CompletableFuture<Void> append : appended) {
+            assertTrue(append.isDone(), "an append enqueued before close is answered by it");
+        }
+    }
+
+    private static byte[] header(byte[] record) {
+        CRC32 crc = new CRC32();
+        crc.update(record);
+        return ByteBuffer.allocate(8).putInt(record.length).putInt((int) crc.getValue()).array();
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+}
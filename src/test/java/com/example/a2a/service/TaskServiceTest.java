@@ -0,0 +1,606 @@
+package com.example.a2a.service;
+
+import com.example.a2a.model.IllegalTaskStateException;
+import com.example.a2a.model.Task;
+import com.example.a2a.model.TaskHistory;
+import com.example.a2a.model.TaskPage;
+import com.example.a2a.model.TaskText;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.WeakReference;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskServiceTest {
+
+    private TaskService taskService;
+
+    @BeforeEach
+    void setUp() {
+        taskService = TaskServices.inMemory();
+    }
+
+    @AfterEach
+    void tearDown() {
+        taskService.close();
+    }
+
+    @Test
+    void submitOnce_shouldReturnStoredTaskForSameFingerprint() {
+        AtomicInteger runs = new AtomicInteger();
+
+        Task first = taskService.submitOnce("task-1", "fp", () -> complete("task-1", runs));
+        Task second = taskService.submitOnce("task-1", "fp", () -> complete("task-1", runs));
+
+        assertSame(first, second);
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void submitOnce_shouldRecomputeForDifferentFingerprint() {
+        AtomicInteger runs = new AtomicInteger();
+
+        taskService.submitOnce("task-1", "fp-a", () -> complete("task-1", runs));
+        taskService.submitOnce("task-1", "fp-b", () -> complete("task-1", runs));
+
+        assertEquals(2, runs.get());
+    }
+
+    @Test
+    void submitOnce_shouldLetConcurrentDuplicatesWaitForInFlightWork() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Task> leader = CompletableFuture.supplyAsync(() ->
+                taskService.submitOnce("task-1", "fp", () -> {
+                    started.countDown();
+                    await(release);
+                    return complete("task-1", runs);
+                }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        List<CompletableFuture<Task>> duplicates = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            duplicates.add(CompletableFuture.supplyAsync(() ->
+                    taskService.submitOnce("task-1", "fp", () -> complete("task-1", runs))));
+        }
+        release.countDown();
+
+        Task task = leader.get(5, TimeUnit.SECONDS);
+        for (CompletableFuture<Task> duplicate : duplicates) {
+            assertSame(task, duplicate.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void submitOnce_shouldRefuseDifferentFingerprintWhileInFlight() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Task> leader = CompletableFuture.supplyAsync(() ->
+                taskService.submitOnce("task-1", "fp-a", () -> {
+                    started.countDown();
+                    await(release);
+                    return complete("task-1", runs);
+                }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        assertThrows(TaskInProgressException.class,
+                () -> taskService.submitOnce("task-1", "fp-b", () -> complete("task-1", runs)));
+        release.countDown();
+
+        assertEquals(Task.TaskState.COMPLETED, leader.get(5, TimeUnit.SECONDS).getState());
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void submitOnce_shouldRecomputeAfterFailure() {
+        AtomicInteger runs = new AtomicInteger();
+
+        assertThrows(IllegalStateException.class, () -> taskService.submitOnce("task-1", "fp", () -> {
+            throw new IllegalStateException("boom");
+        }));
+        Task task = taskService.submitOnce("task-1", "fp", () -> complete("task-1", runs));
+
+        assertEquals(Task.TaskState.COMPLETED, task.getState());
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void expiry_shouldDropTerminalTasksAfterTheirStateRetention() {
+        try (TaskService service = new TaskService(50, 3_600_000, 1_000, 1L << 30, 1, 1, 1,
+                new SimpleMeterRegistry(), null, null)) {
+            service.createTask("done");
+            service.completeTask("done", "result");
+            service.createTask("canceled");
+            service.cancelTask("canceled");
+            service.createTask("working");
+            service.setTaskWorking("working");
+
+            service.expireTasks(System.currentTimeMillis() + 60_000);
+
+            assertNull(service.getTask("done"));
+            assertNotNull(service.getTask("canceled"));
+            assertNotNull(service.getTask("working"));
+        }
+    }
+
+    @Test
+    void expiry_shouldKeepTaskRecreatedUnderSameId() {
+        try (TaskService service = new TaskService(50, 50, 1_000, 1L << 30, 1, 1, 1,
+                new SimpleMeterRegistry(), null, null)) {
+            service.createTask("task-1");
+            service.completeTask("task-1", "first");
+            Task replacement = service.createTask("task-1");
+
+            service.expireTasks(System.currentTimeMillis() + 60_000);
+
+            assertSame(replacement, service.getTask("task-1"));
+        }
+    }
+
+    @Test
+    void budget_shouldEvictLeastRecentlyUsedTerminalTasksOnly() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        String result = "x".repeat(1_000);
+        long weight = TaskWeigher.weigh(completed("task-0", result));
+        try (TaskService service = new TaskService(3_600_000, 3_600_000, 1_000, 3 * weight, 1, 1, 1,
+                registry, null, null)) {
+            service.createTask("working");
+            service.setTaskWorking("working");
+            for (int i = 1; i <= 3; i++) {
+                service.createTask("task-" + i);
+                service.completeTask("task-" + i, result);
+            }
+            service.getTask("task-1");
+            service.createTask("task-4");
+            service.completeTask("task-4", result);
+
+            assertNull(service.getTask("task-2"), "least recently used terminal task is evicted");
+            assertNotNull(service.getTask("task-1"));
+            assertNotNull(service.getTask("task-3"));
+            assertNotNull(service.getTask("task-4"));
+            assertNotNull(service.getTask("working"));
+            assertEquals(1.0, registry.get("tasks.store.evictions").counter().count());
+            assertEquals(3.0 * weight, registry.get("tasks.store.estimated.bytes").gauge().value());
+            assertEquals(1.0, registry.get("tasks.store.requests").tag("result", "miss").counter().count());
+        }
+    }
+
+    @Test
+    void budget_shouldLetAnEvictedTaskBeCollected() throws InterruptedException {
+        String result = "x".repeat(1_000);
+        long weight = TaskWeigher.weigh(completed("task-0", result));
+        try (TaskService service = new TaskService(3_600_000, 3_600_000, 1_000, weight, 1, 1, 1,
+                new SimpleMeterRegistry(), null, null)) {
+            service.createTask("task-1");
+            WeakReference<Task> evicted = new WeakReference<>(service.completeTask("task-1", result));
+            service.createTask("task-2");
+            service.completeTask("task-2", result);
+            assertNull(service.getTask("task-1"));
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (evicted.get() != null && System.nanoTime() < deadline) {
+                System.gc();
+                Thread.sleep(10);
+            }
+            assertNull(evicted.get(), "nothing in the store keeps an evicted task reachable");
+        }
+    }
+
+    @Test
+    void transitions_shouldPublishNewSnapshotsWithIncreasingVersions() {
+        Task submitted = taskService.createTask("task-1");
+        Task working = taskService.setTaskWorking("task-1");
+        Task completed = taskService.completeTask("task-1", "done");
+
+        assertEquals(Task.TaskState.SUBMITTED, submitted.getState());
+        assertEquals(Task.TaskState.WORKING, working.getState());
+        assertEquals(List.of(0L, 1L, 2L), List.of(submitted.getVersion(), working.getVersion(), completed.getVersion()));
+        assertSame(completed, taskService.getTask("task-1"));
+        assertNull(working.getResult());
+    }
+
+    @Test
+    void transitions_shouldKeepTheFirstTerminalState() {
+        taskService.createTask("task-1");
+        taskService.setTaskWorking("task-1");
+        Task canceled = taskService.cancelTask("task-1");
+
+        assertSame(canceled, taskService.completeTask("task-1", "late"));
+        assertSame(canceled, taskService.setTaskWorking("task-1"));
+        IllegalTaskStateException e = assertThrows(IllegalTaskStateException.class, () -> taskService.cancelTask("task-1"));
+        assertEquals(Task.TaskState.CANCELED, e.getState());
+        assertNull(taskService.cancelTask("missing"));
+    }
+
+    @Test
+    void history_shouldRecordEveryTransitionInOrder() {
+        taskService.createTask("task-1");
+        taskService.setTaskWorking("task-1");
+        Task completed = taskService.completeTask("task-1", "done");
+
+        TaskHistory history = completed.history();
+        assertEquals(3, history.size());
+        assertEquals(Task.TaskState.SUBMITTED, history.state(0));
+        assertEquals(Task.TaskState.WORKING, history.state(1));
+        assertEquals(Task.TaskState.COMPLETED, history.state(2));
+        assertEquals(0, history.offsetNanos(0));
+        assertTrue(0 < history.offsetNanos(1) && history.offsetNanos(1) < history.offsetNanos(2));
+        // Measured with nanoTime, not rounded to the milliseconds of the timestamps
+        assertFalse(history.offsetNanos(1) % 1_000_000 == 0 && history.offsetNanos(2) % 1_000_000 == 0);
+        assertEquals(completed.getCreatedAt().plusNanos(history.offsetNanos(2)),
+                history.transitions(completed.getCreatedAt()).get(2).timestamp());
+    }
+
+    @Test
+    void history_shouldStayOrderedForARestoredTask() {
+        Instant created = Instant.now().minus(1, ChronoUnit.HOURS);
+        Task working = new Task("task-1").working();
+        Task restored = Task.restore("task-1", working.getState(), (TaskText) null, null, created, created,
+                working.getVersion(), working.history());
+
+        TaskHistory history = restored.completed(TaskText.of("done")).history();
+
+        assertTrue(history.offsetNanos(2) >= history.offsetNanos(1));
+        assertTrue(history.offsetNanos(2) >= TimeUnit.MINUTES.toNanos(59), "offset follows the wall clock since creation");
+    }
+
+    @Test
+    void history_shouldKeepOnlyTheLatestTransitions() {
+        Task task = new Task("task-1");
+        for (int i = 0; i < TaskHistory.CAPACITY + 5; i++) {
+            task = task.working();
+        }
+        task = task.canceled();
+
+        TaskHistory history = task.history();
+        assertEquals(TaskHistory.CAPACITY, history.size());
+        assertEquals(7, history.dropped());
+        assertEquals(Task.TaskState.WORKING, history.state(0));
+        assertEquals(Task.TaskState.CANCELED, history.state(TaskHistory.CAPACITY - 1));
+        assertEquals(TaskHistory.CAPACITY + 6, task.getVersion(), "dropped transitions still count");
+    }
+
+    @Test
+    void history_shouldKeepTheVersionOfARestoredTask() {
+        Instant created = Instant.now().minus(1, ChronoUnit.HOURS);
+        Task approximated = Task.restore("task-1", Task.TaskState.WORKING, (String) null, null, created, created, 9);
+        Task first = Task.restore("task-2", Task.TaskState.WORKING, (String) null, null, created, created, 0);
+
+        assertEquals(9, approximated.getVersion());
+        assertEquals(8, approximated.history().dropped());
+        assertEquals(10, approximated.completed("done", null).getVersion());
+        assertEquals(0, first.getVersion());
+        assertEquals(1, first.history().size());
+        assertEquals(Task.TaskState.WORKING, first.history().state(0));
+    }
+
+    @Test
+    void transitions_shouldLetExactlyOneOfConcurrentCompleteAndCancelWin() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < 200; i++) {
+                String id = "task-" + i;
+                taskService.createTask(id);
+                taskService.setTaskWorking(id);
+                CountDownLatch start = new CountDownLatch(1);
+                Future<Task> complete = executor.submit(() -> {
+                    start.await();
+                    return taskService.completeTask(id, "done");
+                });
+                Future<Boolean> cancel = executor.submit(() -> {
+                    start.await();
+                    try {
+                        taskService.cancelTask(id);
+                        return true;
+                    } catch (IllegalTaskStateException e) {
+                        return false;
+                    }
+                });
+                start.countDown();
+
+                Task completeResult = complete.get(5, TimeUnit.SECONDS);
+                boolean canceled = cancel.get(5, TimeUnit.SECONDS);
+                Task stored = taskService.getTask(id);
+                assertEquals(canceled ? Task.TaskState.CANCELED : Task.TaskState.COMPLETED, stored.getState());
+                assertSame(stored, completeResult);
+                assertEquals(2, stored.getVersion());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shards_shouldSpreadTasksAndExpireThemIndependently() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        int threads = 8;
+        int perThread = 500;
+        try (TaskService service = new TaskService(2_000, 2_000, 1_000, 1L << 30, 1, 4, 2, registry, null, null)) {
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            try {
+                List<Future<?>> runs = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    int thread = t;
+                    runs.add(pool.submit(() -> {
+                        for (int i = 0; i < perThread; i++) {
+                            String id = "task-" + thread + "-" + i;
+                            service.createTask(id);
+                            service.completeTask(id, "done");
+                            assertEquals(Task.TaskState.COMPLETED, service.getTask(id).getState());
+                        }
+                    }));
+                }
+                for (Future<?> run : runs) {
+                    run.get(10, TimeUnit.SECONDS);
+                }
+            } finally {
+                pool.shutdownNow();
+            }
+
+            double total = registry.get("tasks.store.size").gauge().value();
+            assertEquals(threads * perThread, total);
+            double perShard = 0;
+            for (int shard = 0; shard < 4; shard++) {
+                double size = registry.get("tasks.shard.size").tag("shard", Integer.toString(shard)).gauge().value();
+                assertTrue(size > 0, "every shard receives tasks");
+                perShard += size;
+            }
+            assertEquals(total, perShard);
+
+            service.expireTasks(System.currentTimeMillis() + 60_000);
+            assertEquals(0.0, registry.get("tasks.store.size").gauge().value());
+        }
+    }
+
+    @Test
+    void listTasks_shouldPageThroughOneStateInCreationOrder() {
+        for (int i = 0; i < 5; i++) {
+            taskService.createTask("task-" + i);
+            taskService.setTaskWorking("task-" + i);
+        }
+        taskService.createTask("submitted");
+        taskService.completeTask("task-2", "done");
+
+        TaskPage first = taskService.listTasks(new TaskQuery(Task.TaskState.WORKING, null, null, null, null, 3, null));
+        assertEquals(List.of("task-0", "task-1", "task-3"), ids(first));
+        assertNotNull(first.getNextCursor());
+
+        TaskPage second = taskService.listTasks(
+                new TaskQuery(Task.TaskState.WORKING, null, null, null, null, 3, first.getNextCursor()));
+        assertEquals(List.of("task-4"), ids(second));
+        assertNull(second.getNextCursor());
+
+        TaskPage completed = taskService.listTasks(new TaskQuery(Task.TaskState.COMPLETED, null, null, null, null, 10, null));
+        assertEquals(List.of("task-2"), ids(completed));
+    }
+
+    @Test
+    void listTasks_shouldFilterByUpdateTimeAndDropRemovedTasks() {
+        Instant created = Instant.now().minus(1, ChronoUnit.HOURS);
+        taskService.load(Task.restore("old", Task.TaskState.SUBMITTED, (String) null, null, created, created, 0));
+        Instant cut = created.plusSeconds(1);
+        taskService.createTask("new");
+        taskService.createTask("recreated");
+        taskService.createTask("recreated");
+
+        TaskPage updated = taskService.listTasks(new TaskQuery(null, null, null, cut, null, 10, null));
+        assertEquals(List.of("new", "recreated"), ids(updated));
+
+        taskService.setTaskWorking("old");
+        TaskPage all = taskService.listTasks(new TaskQuery(null, null, null, cut, null, 1, null));
+        assertEquals(1, all.getTasks().size());
+        TaskPage rest = taskService.listTasks(new TaskQuery(null, null, null, cut, null, 10, all.getNextCursor()));
+        assertEquals(3, all.getTasks().size() + rest.getTasks().size());
+        assertThrows(IllegalArgumentException.class, () -> taskService.listTasks(
+                new TaskQuery(Task.TaskState.WORKING, null, null, null, null, 10, all.getNextCursor())));
+    }
+
+    @Test
+    void listTasks_shouldMergeTheShardsInUpdateOrderForAStateAndUpdateRange() {
+        try (TaskService service = new TaskService(3_600_000, 3_600_000, 1_000, 1L << 30, 1, 8, 1,
+                new SimpleMeterRegistry(), null, null)) {
+            Instant base = Instant.now().minus(1, ChronoUnit.HOURS).truncatedTo(ChronoUnit.MILLIS);
+            List<String> expected = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                // Created in reverse, so the update order differs from the creation order
+                Instant created = base.minusSeconds(i);
+                Instant updated = base.plusSeconds(i);
+                Task.TaskState state = i % 4 == 0 ? Task.TaskState.SUBMITTED : Task.TaskState.WORKING;
+                service.load(Task.restore("task-" + i, state, (String) null, null, created, updated, 0));
+                if (state == Task.TaskState.WORKING && i >= 10) {
+                    expected.add("task-" + i);
+                }
+            }
+
+            List<String> listed = new ArrayList<>();
+            String cursor = null;
+            do {
+                TaskPage page = service.listTasks(new TaskQuery(Task.TaskState.WORKING, null, null,
+                        base.plusSeconds(10), null, 7, cursor));
+                listed.addAll(ids(page));
+                cursor = page.getNextCursor();
+            } while (cursor != null);
+            assertEquals(expected, listed);
+        }
+    }
+
+    @Test
+    void listeners_shouldFanOutOneEncodedUpdateToEverySubscriber() throws InterruptedException {
+        taskService.createTask("task-1");
+        AtomicInteger encodings = new AtomicInteger();
+        TaskUpdate.Encoding<String> encoding =
+                new TaskUpdate.Encoding<>(u -> encodings.incrementAndGet() + ":" + u.getState());
+        BlockingQueue<Object> received = new LinkedBlockingQueue<>();
+        TaskService.TaskUpdateListener first = update -> received.add(update.encoded(encoding));
+        TaskService.TaskUpdateListener second = update -> received.add(update.encoded(encoding));
+        taskService.addListener("task-1", first);
+        taskService.addListener("task-1", second);
+        assertEquals(2, taskService.getSubscriberCount("task-1"));
+
+        taskService.setTaskWorking("task-1");
+        assertEquals("1:WORKING", received.poll(5, TimeUnit.SECONDS));
+        assertEquals("1:WORKING", received.poll(5, TimeUnit.SECONDS));
+
+        taskService.removeListener("task-1", first);
+        assertEquals(1, taskService.getSubscriberCount("task-1"));
+        taskService.completeTask("task-1", "done");
+        assertEquals("2:COMPLETED", received.poll(5, TimeUnit.SECONDS));
+        assertNull(received.poll(100, TimeUnit.MILLISECONDS));
+
+        taskService.removeListener("task-1", second);
+        assertEquals(0, taskService.getSubscriberCount("task-1"));
+    }
+
+    @Test
+    void encoded_shouldKeepTheOutputOfEachEncodingApart() {
+        TaskUpdate update = new TaskUpdate(new Task("task-1"));
+        TaskUpdate.Encoding<String> text = new TaskUpdate.Encoding<>(u -> u.getTaskId());
+        TaskUpdate.Encoding<Integer> length = new TaskUpdate.Encoding<>(u -> u.getTaskId().length());
+
+        assertEquals("task-1", update.encoded(text));
+        assertEquals(6, update.encoded(length));
+        assertSame(update.encoded(text), update.encoded(text));
+    }
+
+    @Test
+    void listeners_shouldBeNotifiedInOrderWithoutBlockingTheCaller() throws InterruptedException {
+        try (TaskService service = new TaskService(3_600_000, 3_600_000, 1_000, 1L << 30, 2, 1, 1,
+                new SimpleMeterRegistry(), null, null)) {
+            service.createTask("slow");
+            service.createTask("fast");
+            CountDownLatch release = new CountDownLatch(1);
+            List<Task.TaskState> slowStates = new CopyOnWriteArrayList<>();
+            CountDownLatch slowDone = new CountDownLatch(2);
+            CountDownLatch fastDone = new CountDownLatch(1);
+            service.addListener("slow", update -> {
+                await(release);
+                slowStates.add(update.getState());
+                slowDone.countDown();
+            });
+            service.addListener("fast", update -> {
+                if (update.getState() == Task.TaskState.COMPLETED) {
+                    fastDone.countDown();
+                }
+            });
+
+            service.setTaskWorking("slow");
+            service.completeTask("slow", "done");
+            service.completeTask("fast", "done");
+
+            // The stalled subscriber holds back neither the caller nor other tasks' listeners
+            assertTrue(fastDone.await(5, TimeUnit.SECONDS));
+            assertTrue(slowStates.isEmpty());
+
+            release.countDown();
+            assertTrue(slowDone.await(5, TimeUnit.SECONDS));
+            assertEquals(List.of(Task.TaskState.WORKING, Task.TaskState.COMPLETED), slowStates);
+        }
+    }
+
+    @Test
+    void listeners_shouldMoveAStalledSubscriberOffTheSharedThreads() throws InterruptedException {
+        try (TaskService service = new TaskService(3_600_000, 3_600_000, 1_000, 1L << 30, 1, 1, 1,
+                new SimpleMeterRegistry(), null, null)) {
+            service.createTask("slow");
+            service.createTask("fast");
+            CountDownLatch release = new CountDownLatch(1);
+            List<Task.TaskState> slowStates = new CopyOnWriteArrayList<>();
+            CountDownLatch slowDone = new CountDownLatch(2);
+            CountDownLatch fastDone = new CountDownLatch(1);
+            service.addListener("slow", update -> {
+                if (update.getState() == Task.TaskState.WORKING) {
+                    sleep(200);
+                } else {
+                    await(release);
+                }
+                slowStates.add(update.getState());
+                slowDone.countDown();
+            });
+            service.addListener("fast", update -> {
+                if (update.getState() == Task.TaskState.COMPLETED) {
+                    fastDone.countDown();
+                }
+            });
+
+            service.setTaskWorking("slow");
+            service.completeTask("slow", "done");
+            service.completeTask("fast", "done");
+
+            // After its first stall the subscriber waits on a thread of its own, not the only shared one
+            assertTrue(fastDone.await(5, TimeUnit.SECONDS));
+            release.countDown();
+            assertTrue(slowDone.await(5, TimeUnit.SECONDS));
+            assertEquals(List.of(Task.TaskState.WORKING, Task.TaskState.COMPLETED), slowStates);
+        }
+    }
+
+    @Test
+    void listeners_shouldNotFailTheChangeWhenNotificationsAreRefused() {
+        TaskService service = new TaskService(3_600_000, 3_600_000, 1_000, 1L << 30, 1, 1, 1,
+                new SimpleMeterRegistry(), null, null);
+        service.createTask("task-1");
+        service.addListener("task-1", update -> { });
+        service.close();
+
+        Task task = service.setTaskWorking("task-1");
+
+        assertEquals(Task.TaskState.WORKING, task.getState());
+        assertSame(task, service.getTask("task-1"));
+    }
+
+    private static List<String> ids(TaskPage page) {
+        return page.getTasks().stream().map(Task::getId).toList();
+    }
+
+    private static Task completed(String id, String result) {
+        TaskText text = TaskText.of(result);
+        return new Task(id).completed(text, List.of(new Task.Artifact("response", List.of(new Task.Part("text", text)))));
+    }
+
+    private Task complete(String id, AtomicInteger runs) {
+        runs.incrementAndGet();
+        taskService.createTask(id);
+        return taskService.completeTask(id, "done");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Hold a notify thread past the stall threshold of {@link TaskListenerSet}.
+     */
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
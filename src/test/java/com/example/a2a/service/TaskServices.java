@@ -0,0 +1,29 @@
+package com.example.a2a.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * In-memory task stores wired by hand, for tests and benchmarks outside this package.
+ * Close them when done; they own thread pools.
+ */
+public final class TaskServices {
+
+    private TaskServices() {
+    }
+
+    /**
+     * A store with the application's default settings.
+     */
+    public static TaskService inMemory() {
+        return inMemory(3_600_000, 1_000, 0);
+    }
+
+    /**
+     * @param retentionMs how long completed and canceled tasks are kept
+     * @param shards      partitions of the store; {@code 0} is one per available processor
+     */
+    public static TaskService inMemory(long retentionMs, long expiryTickMs, int shards) {
+        return new TaskService(retentionMs, retentionMs, expiryTickMs, 1L << 30, 2, shards, 2,
+                new SimpleMeterRegistry(), null, null);
+    }
+}
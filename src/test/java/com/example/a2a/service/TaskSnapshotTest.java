@@ -0,0 +1,98 @@
+package com.example.a2a.service;
+
+import com.example.a2a.model.Task;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskSnapshotTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void close_shouldWriteASnapshotThatANewStoreStartsFrom() throws IOException {
+        Path file = directory.resolve("tasks.snapshot");
+        int count = 20_000;
+        try (TaskService before = service(); TaskSnapshot snapshot = new TaskSnapshot(file, 60_000, before)) {
+            snapshot.recover();
+            for (int i = 0; i < count; i++) {
+                String id = "task-" + i;
+                before.createTask(id);
+                if (i % 2 == 0) {
+                    before.setTaskWorking(id);
+                    before.completeTask(id, "result-" + i);
+                }
+            }
+        }
+
+        try (TaskService after = service(); TaskSnapshot snapshot = new TaskSnapshot(file, 60_000, after)) {
+            assertEquals(count, snapshot.recover());
+            assertEquals(count, after.size());
+            Task done = after.getTask("task-42");
+            assertEquals(Task.TaskState.COMPLETED, done.getState());
+            assertEquals("result-42", done.getResult());
+            assertSame(done.resultText(), done.getArtifacts().get(0).getParts().get(0).textContent());
+            assertEquals(3, done.history().size());
+            assertEquals(Task.TaskState.SUBMITTED, after.getTask("task-43").getState());
+            assertEquals(count / 2, after.listTasks(
+                    new TaskQuery(Task.TaskState.SUBMITTED, null, null, null, null, count, null)).getTasks().size());
+            assertEquals(count, snapshot.write());
+        }
+    }
+
+    @Test
+    void recover_shouldLeaveAStoreThatIsNotEmptyAlone() throws IOException {
+        Path file = directory.resolve("tasks.snapshot");
+        try (TaskService before = service(); TaskSnapshot snapshot = new TaskSnapshot(file, 60_000, before)) {
+            snapshot.recover();
+            before.createTask("old");
+        }
+
+        try (TaskService after = service(); TaskSnapshot snapshot = new TaskSnapshot(file, 60_000, after)) {
+            after.createTask("new");
+            assertEquals(0, snapshot.recover());
+            assertNull(after.getTask("old"));
+            assertNotNull(after.getTask("new"));
+        }
+    }
+
+    @Test
+    void recover_shouldStartEmptyFromADamagedSnapshot() throws IOException {
+        Path file = directory.resolve("tasks.snapshot");
+        Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20, 21, 22, 23, 24});
+
+        try (TaskService after = service(); TaskSnapshot snapshot = new TaskSnapshot(file, 60_000, after)) {
+            assertEquals(0, snapshot.recover());
+            assertEquals(0, after.size());
+        }
+    }
+
+    @Test
+    void close_shouldNotWriteBeforeRecover() throws IOException {
+        Path file = directory.resolve("tasks.snapshot");
+        try (TaskService before = service(); TaskSnapshot snapshot = new TaskSnapshot(file, 60_000, before)) {
+            snapshot.recover();
+            before.createTask("kept");
+        }
+
+        try (TaskService after = service()) {
+            new TaskSnapshot(file, 60_000, after).close();
+        }
+
+        try (TaskService after = service(); TaskSnapshot snapshot = new TaskSnapshot(file, 60_000, after)) {
+            assertEquals(1, snapshot.recover());
+            assertNotNull(after.getTask("kept"));
+        }
+    }
+
+    private static TaskService service() {
+        return new TaskService(3_600_000, 3_600_000, 1_000, 1L << 30, 1, 4, 2, new SimpleMeterRegistry(), null, null);
+    }
+}